@@ -4,13 +4,15 @@ import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
 import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
 import mta.patmal.enigma.dto.MachineConfigSpecs;
 import mta.patmal.enigma.dto.MachineData;
-import mta.patmal.enigma.dto.StatisticsDTO;
+import mta.patmal.enigma.dto.StatisticsPageDTO;
 import mta.patmal.enigma.engine.Engine;
 import mta.patmal.enigma.engine.exceptions.*;
 
 import java.util.List;
 
 public class EngineOperations {
+    private static final int STATISTICS_PAGE_SIZE = 50;
+
     private final Engine engine;
     private final MenuDisplay display;
     private final InputCollector input;
@@ -137,11 +139,32 @@ public class EngineOperations {
         }
     }
 
+    // pages through the history so large histories are never materialized at once
     public void handleStatistics() {
         try {
-            StatisticsDTO statistics = engine.statistics();
-            display.displayStatistics(statistics);
-        } catch (MachineNotLoadedException | CodeNotConfiguredException e) {
+            List<String> codes = engine.statisticsCodes();
+            if (codes.isEmpty()) {
+                display.displayNoHistory();
+                return;
+            }
+
+            display.displayStatisticsHeader();
+            int index = 1;
+            for (String code : codes) {
+                display.displayCodeConfiguration(code);
+                long cursor = StatisticsPageDTO.FIRST_PAGE;
+                StatisticsPageDTO page;
+                do {
+                    page = engine.statisticsPage(code, cursor, STATISTICS_PAGE_SIZE);
+                    index = display.displayProcessingEntries(page.getEntries(), index);
+                    cursor = page.getNextCursor();
+                    if (page.hasMore() && !input.confirmMore()) {
+                        return;
+                    }
+                } while (page.hasMore());
+                display.displayEndOfCode();
+            }
+        } catch (MachineNotLoadedException | CodeNotConfiguredException | InvalidInputException e) {
             display.displayError(e.getMessage());
         }
     }
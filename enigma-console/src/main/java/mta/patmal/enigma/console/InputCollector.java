@@ -164,6 +164,12 @@ public class InputCollector {
         return response.equals("y") || response.equals("yes");
     }
 
+    public boolean confirmMore() {
+        System.out.print("Show more entries? (y/n): ");
+        String response = scanner.nextLine().trim().toLowerCase();
+        return response.equals("y") || response.equals("yes");
+    }
+
     private boolean shouldReturnToMenu(String input) {
         return input.equalsIgnoreCase("exit") || 
                input.equalsIgnoreCase("menu") || 
@@ -4,10 +4,8 @@ import loader.RomanNumeralUtils;
 import mta.patmal.enigma.dto.MachineConfigSpecs;
 import mta.patmal.enigma.dto.MachineData;
 import mta.patmal.enigma.dto.ProcessingEntryDTO;
-import mta.patmal.enigma.dto.StatisticsDTO;
 
 import java.util.List;
-import java.util.Map;
 
 public class MenuDisplay {
 
@@ -40,32 +38,45 @@ public class MenuDisplay {
         }
     }
 
-    public void displayStatistics(StatisticsDTO statistics) {
-        if (statistics.isEmpty()) {
-            System.out.println("\nNo history available yet.");
-            return;
-        }
+    public void displayNoHistory() {
+        System.out.println("\nNo history available yet.");
+    }
 
+    public void displayStatisticsHeader() {
         System.out.println("\nStatistics:");
         System.out.println("===========");
-        
-        int index = 1;
-        for (Map.Entry<String, List<ProcessingEntryDTO>> entry : statistics.getHistoryByCode().entrySet()) {
-            String code = entry.getKey();
-            List<ProcessingEntryDTO> entries = entry.getValue();
-
-            System.out.println("Code configuration: " + code);
-            for (ProcessingEntryDTO processingEntry : entries) {
+    }
+
+    public void displayCodeConfiguration(String code) {
+        System.out.println("Code configuration: " + code);
+    }
+
+    // prints the entries numbered from index; returns the next index
+    public int displayProcessingEntries(List<ProcessingEntryDTO> entries, int index) {
+        for (ProcessingEntryDTO processingEntry : entries) {
+            if (processingEntry.getInput() == null) {
                 System.out.printf(
-                        "%d. <%s> --> <%s> (%d nano-seconds)%n",
+                        "%d. <%d %s> (%d nano-seconds)%n",
                         index++,
-                        processingEntry.getInput(),
-                        processingEntry.getOutput(),
+                        processingEntry.getLength(),
+                        processingEntry.isLengthInBytes() ? "bytes" : "characters",
                         processingEntry.getDurationNanos()
                 );
+                continue;
             }
-            System.out.println();
+            System.out.printf(
+                    "%d. <%s> --> <%s> (%d nano-seconds)%n",
+                    index++,
+                    processingEntry.getInput(),
+                    processingEntry.getOutput(),
+                    processingEntry.getDurationNanos()
+            );
         }
+        return index;
+    }
+
+    public void displayEndOfCode() {
+        System.out.println();
     }
 
     public void displayError(String message) {
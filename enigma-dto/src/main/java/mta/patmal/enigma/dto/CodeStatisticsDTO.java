@@ -0,0 +1,53 @@
+package mta.patmal.enigma.dto;
+
+public class CodeStatisticsDTO {
+    private final String codeConfiguration;
+    private final long messageCount;
+    private final long totalLength;
+    private final long totalDurationNanos;
+    private final long minDurationNanos;
+    private final long maxDurationNanos;
+
+    public CodeStatisticsDTO(String codeConfiguration, long messageCount, long totalLength,
+                             long totalDurationNanos, long minDurationNanos, long maxDurationNanos) {
+        this.codeConfiguration = codeConfiguration;
+        this.messageCount = messageCount;
+        this.totalLength = totalLength;
+        this.totalDurationNanos = totalDurationNanos;
+        this.minDurationNanos = minDurationNanos;
+        this.maxDurationNanos = maxDurationNanos;
+    }
+
+    public String getCodeConfiguration() {
+        return codeConfiguration;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public long getTotalDurationNanos() {
+        return totalDurationNanos;
+    }
+
+    public long getMinDurationNanos() {
+        return minDurationNanos;
+    }
+
+    public long getMaxDurationNanos() {
+        return maxDurationNanos;
+    }
+
+    public double getAverageDurationNanos() {
+        return messageCount == 0 ? 0 : (double) totalDurationNanos / messageCount;
+    }
+
+    // characters (or bytes) per second over all messages of this code
+    public double getThroughputPerSecond() {
+        return totalDurationNanos == 0 ? 0 : totalLength * 1e9 / totalDurationNanos;
+    }
+}
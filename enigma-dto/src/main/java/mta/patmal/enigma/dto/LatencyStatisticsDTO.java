@@ -0,0 +1,28 @@
+package mta.patmal.enigma.dto;
+
+public class LatencyStatisticsDTO {
+    private final String codeConfiguration;
+    private final PercentilesDTO messageLatencyNanos;
+    private final PercentilesDTO perCharacterPicos;
+
+    public LatencyStatisticsDTO(String codeConfiguration, PercentilesDTO messageLatencyNanos,
+                                PercentilesDTO perCharacterPicos) {
+        this.codeConfiguration = codeConfiguration;
+        this.messageLatencyNanos = messageLatencyNanos;
+        this.perCharacterPicos = perCharacterPicos;
+    }
+
+    // null for the engine-wide statistics
+    public String getCodeConfiguration() {
+        return codeConfiguration;
+    }
+
+    public PercentilesDTO getMessageLatencyNanos() {
+        return messageLatencyNanos;
+    }
+
+    // processing time per character (or byte) in picoseconds, so fast paths stay above 1
+    public PercentilesDTO getPerCharacterPicos() {
+        return perCharacterPicos;
+    }
+}
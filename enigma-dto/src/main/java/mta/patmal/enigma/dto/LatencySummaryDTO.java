@@ -0,0 +1,26 @@
+package mta.patmal.enigma.dto;
+
+import java.util.List;
+
+public class LatencySummaryDTO {
+    private final List<LatencyStatisticsDTO> codes;
+    private final LatencyStatisticsDTO total;
+
+    public LatencySummaryDTO(List<LatencyStatisticsDTO> codes, LatencyStatisticsDTO total) {
+        this.codes = codes;
+        this.total = total;
+    }
+
+    // one entry per code configuration, in the order the codes were first used
+    public List<LatencyStatisticsDTO> getCodes() {
+        return codes;
+    }
+
+    public LatencyStatisticsDTO getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return codes.isEmpty();
+    }
+}
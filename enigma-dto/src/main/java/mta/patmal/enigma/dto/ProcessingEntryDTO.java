@@ -3,11 +3,25 @@ package mta.patmal.enigma.dto;
 public class ProcessingEntryDTO {
     private final String input;
     private final String output;
+    private final long length;
+    private final boolean lengthInBytes;
     private final long durationNanos;
     
     public ProcessingEntryDTO(String input, String output, long durationNanos) {
+        this(input, output, input.length(), durationNanos);
+    }
+    
+    // input and output are null when only the size of the message was recorded
+    public ProcessingEntryDTO(String input, String output, long length, long durationNanos) {
+        this(input, output, length, false, durationNanos);
+    }
+
+    // lengthInBytes: the length counts bytes (byte mode) rather than characters
+    public ProcessingEntryDTO(String input, String output, long length, boolean lengthInBytes, long durationNanos) {
         this.input = input;
         this.output = output;
+        this.length = length;
+        this.lengthInBytes = lengthInBytes;
         this.durationNanos = durationNanos;
     }
     
@@ -19,6 +33,14 @@ public class ProcessingEntryDTO {
         return output;
     }
     
+    public long getLength() {
+        return length;
+    }
+    
+    public boolean isLengthInBytes() {
+        return lengthInBytes;
+    }
+
     public long getDurationNanos() {
         return durationNanos;
     }
@@ -0,0 +1,48 @@
+package mta.patmal.enigma.dto;
+
+import java.util.List;
+
+public class StatisticsPageDTO {
+    public static final long FIRST_PAGE = 0;
+    private static final long NO_NEXT_PAGE = -1;
+
+    private final String codeConfiguration;
+    private final long cursor;
+    private final int totalEntries;
+    private final List<ProcessingEntryDTO> entries;
+    private final long nextCursor;
+
+    public StatisticsPageDTO(String codeConfiguration, long cursor, int totalEntries, List<ProcessingEntryDTO> entries, long nextCursor) {
+        this.codeConfiguration = codeConfiguration;
+        this.cursor = cursor;
+        this.totalEntries = totalEntries;
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public String getCodeConfiguration() {
+        return codeConfiguration;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    // pass to the next statisticsPage call; only meaningful while hasMore()
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    // retained entries of this code, across all pages
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    public List<ProcessingEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != NO_NEXT_PAGE;
+    }
+}
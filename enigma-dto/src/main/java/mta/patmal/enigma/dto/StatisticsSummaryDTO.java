@@ -0,0 +1,27 @@
+package mta.patmal.enigma.dto;
+
+import java.util.List;
+
+public class StatisticsSummaryDTO {
+    private final List<CodeStatisticsDTO> codes;
+    private final CodeStatisticsDTO total;
+
+    public StatisticsSummaryDTO(List<CodeStatisticsDTO> codes, CodeStatisticsDTO total) {
+        this.codes = codes;
+        this.total = total;
+    }
+
+    // one entry per code configuration, in the order the codes were first used
+    public List<CodeStatisticsDTO> getCodes() {
+        return codes;
+    }
+
+    // all codes together; its code configuration is null
+    public CodeStatisticsDTO getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return codes.isEmpty();
+    }
+}
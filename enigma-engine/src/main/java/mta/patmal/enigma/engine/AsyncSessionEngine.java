@@ -0,0 +1,210 @@
+package mta.patmal.enigma.engine;
+
+import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
+import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.MachineConfigSpecs;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Non-blocking facade over a SessionEngine. Every call runs on its own virtual thread, so idle
+ * clients cost no platform threads. Calls for one session run one at a time in submission order.
+ * At most maxPending calls may be in flight; further submitters wait for a slot. A call frees
+ * its slot before its future completes, and futures complete off the session's queue, so
+ * callbacks may submit and wait on further calls.
+ */
+public class AsyncSessionEngine implements AutoCloseable {
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+
+    private final SessionEngine engine;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxPending;
+    private final Semaphore pending;
+    private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+
+    public AsyncSessionEngine(SessionEngine engine) {
+        this(engine, DEFAULT_MAX_PENDING);
+    }
+
+    public AsyncSessionEngine(SessionEngine engine, int maxPending) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Engine cannot be null");
+        }
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("Max pending calls must be positive");
+        }
+        this.engine = engine;
+        this.maxPending = maxPending;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    @FunctionalInterface
+    private interface EngineCall<T> {
+        T call() throws Exception;
+    }
+
+    public CompletableFuture<String> loadDefinition(String path) {
+        return submit(null, () -> engine.loadDefinition(path));
+    }
+
+    public CompletableFuture<MachineConfigSpecs> getMachineConfigSpecs(String definitionId) {
+        return submit(null, () -> engine.getMachineConfigSpecs(definitionId));
+    }
+
+    public CompletableFuture<String> openSession(String definitionId) {
+        return submit(null, () -> engine.openSession(definitionId));
+    }
+
+    public CompletableFuture<CodeConfigurationResultDTO> codeManual(String sessionId, CodeConfigurationRequestDTO request) {
+        return submit(sessionId, () -> engine.codeManual(sessionId, request));
+    }
+
+    public CompletableFuture<CodeConfigurationResultDTO> codeAutomatic(String sessionId) {
+        return submit(sessionId, () -> engine.codeAutomatic(sessionId));
+    }
+
+    public CompletableFuture<String> process(String sessionId, String input) {
+        return submit(sessionId, () -> engine.process(sessionId, input));
+    }
+
+    public CompletableFuture<Void> resetCurrentCode(String sessionId) {
+        return submit(sessionId, () -> {
+            engine.resetCurrentCode(sessionId);
+            return null;
+        });
+    }
+
+    // runs after every call already submitted for the session
+    public CompletableFuture<Void> closeSession(String sessionId) {
+        return submit(sessionId, () -> {
+            engine.closeSession(sessionId);
+            return null;
+        });
+    }
+
+    // calls submitted and not yet finished
+    public int getPendingCount() {
+        return maxPending - pending.availablePermits();
+    }
+
+    // waits for a free slot, then hands the call to the session's queue, or straight to a virtual thread
+    private <T> CompletableFuture<T> submit(String sessionId, EngineCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        Runnable task = () -> {
+            T value = null;
+            Throwable failure = null;
+            try {
+                value = call.call();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            pending.release();
+            complete(result, value, failure);
+        };
+        try {
+            if (sessionId == null) {
+                executor.execute(task);
+            } else {
+                enqueue(sessionId, task);
+            }
+        } catch (RuntimeException e) {
+            pending.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // completes on a fresh virtual thread, so callbacks never hold up the session's queue
+    private <T> void complete(CompletableFuture<T> result, T value, Throwable failure) {
+        Runnable completion = () -> {
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        };
+        try {
+            executor.execute(completion);
+        } catch (RuntimeException e) {
+            // the executor is closing; complete here rather than leave the future hanging
+            completion.run();
+        }
+    }
+
+    private void enqueue(String sessionId, Runnable task) {
+        // compute keeps a queue from being dropped while a task is being added to it
+        queues.compute(sessionId, (id, queue) -> {
+            SessionQueue target = (queue != null) ? queue : new SessionQueue(id);
+            target.add(task);
+            return target;
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Runs one session's calls one after another on virtual threads. A queue that drains
+     * removes itself, so closed and idle sessions leave nothing behind.
+     */
+    private final class SessionQueue {
+        private final String sessionId;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+
+        SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        // called inside queues.compute for this session
+        synchronized void add(Runnable task) {
+            tasks.add(task);
+            if (!running) {
+                running = true;
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    tasks.remove(task);
+                    running = false;
+                    throw e;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        running = false;
+                        break;
+                    }
+                }
+                task.run();
+            }
+            queues.computeIfPresent(sessionId, (id, queue) -> {
+                synchronized (queue) {
+                    return queue.running || !queue.tasks.isEmpty() ? queue : null;
+                }
+            });
+        }
+    }
+}
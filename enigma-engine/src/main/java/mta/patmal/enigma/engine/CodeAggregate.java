@@ -0,0 +1,79 @@
+package mta.patmal.enigma.engine;
+
+import mta.patmal.enigma.dto.CodeStatisticsDTO;
+import mta.patmal.enigma.dto.LatencyStatisticsDTO;
+
+/**
+ * Running totals for one code configuration, updated in O(1) per message so summaries
+ * never have to walk the history.
+ */
+public class CodeAggregate {
+    private long messageCount;
+    private long totalLength;
+    private long totalDurationNanos;
+    private long minDurationNanos = Long.MAX_VALUE;
+    private long maxDurationNanos;
+    private final LatencyHistogram messageLatency;
+    private final LatencyHistogram perCharacterPicos;
+
+    public CodeAggregate() {
+        this(new LatencyHistogram(), new LatencyHistogram());
+    }
+
+    private CodeAggregate(LatencyHistogram messageLatency, LatencyHistogram perCharacterPicos) {
+        this.messageLatency = messageLatency;
+        this.perCharacterPicos = perCharacterPicos;
+    }
+
+    public void record(long length, long durationNanos) {
+        messageCount++;
+        totalLength += length;
+        totalDurationNanos += durationNanos;
+        minDurationNanos = Math.min(minDurationNanos, durationNanos);
+        maxDurationNanos = Math.max(maxDurationNanos, durationNanos);
+        messageLatency.record(durationNanos);
+        recordPerCharacter(length, durationNanos);
+    }
+
+    // a batch timed as a whole: counted in the totals and once in the per-character histogram,
+    // but left out of min/max and the per-message histogram, which hold only measured messages
+    public void recordBatch(int messages, long length, long durationNanos) {
+        messageCount += messages;
+        totalLength += length;
+        totalDurationNanos += durationNanos;
+        recordPerCharacter(length, durationNanos);
+    }
+
+    private void recordPerCharacter(long length, long durationNanos) {
+        if (length > 0) {
+            perCharacterPicos.record(durationNanos < Long.MAX_VALUE / 1000
+                    ? durationNanos * 1000 / length
+                    : durationNanos / length * 1000);
+        }
+    }
+
+    public CodeAggregate copy() {
+        CodeAggregate copy = new CodeAggregate(messageLatency.copy(), perCharacterPicos.copy());
+        copy.messageCount = messageCount;
+        copy.totalLength = totalLength;
+        copy.totalDurationNanos = totalDurationNanos;
+        copy.minDurationNanos = minDurationNanos;
+        copy.maxDurationNanos = maxDurationNanos;
+        return copy;
+    }
+
+    public long getMessageCount() { return messageCount; }
+    public long getTotalLength() { return totalLength; }
+    public long getTotalDurationNanos() { return totalDurationNanos; }
+    public long getMinDurationNanos() { return minDurationNanos == Long.MAX_VALUE ? 0 : minDurationNanos; }
+    public long getMaxDurationNanos() { return maxDurationNanos; }
+
+    public CodeStatisticsDTO toDTO(String codeConfiguration) {
+        return new CodeStatisticsDTO(codeConfiguration, messageCount, totalLength,
+                totalDurationNanos, getMinDurationNanos(), maxDurationNanos);
+    }
+
+    public LatencyStatisticsDTO toLatencyDTO(String codeConfiguration) {
+        return new LatencyStatisticsDTO(codeConfiguration, messageLatency.toDTO(), perCharacterPicos.toDTO());
+    }
+}
@@ -2,11 +2,23 @@ package mta.patmal.enigma.engine;
 
 import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
 import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.LatencySummaryDTO;
 import mta.patmal.enigma.dto.MachineConfigSpecs;
 import mta.patmal.enigma.dto.MachineData;
 import mta.patmal.enigma.dto.StatisticsDTO;
+import mta.patmal.enigma.dto.StatisticsPageDTO;
+import mta.patmal.enigma.dto.StatisticsSummaryDTO;
+import mta.patmal.enigma.engine.display.StatisticsExporter;
 import mta.patmal.enigma.engine.exceptions.*;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
 public interface Engine {
 
     void loadXml(String path) throws XmlLoadException;
@@ -20,8 +32,39 @@ public interface Engine {
     CodeConfigurationResultDTO codeAutomatic() throws MachineNotLoadedException, InvalidConfigurationException;
     
     String process(String input) throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException;
+
+    // messages in order under the current code, as one call; either all are processed or none
+    List<String> processBatch(List<String> inputs) throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException;
+
+    // encrypts incrementally through a bounded buffer; returns the number of characters written
+    long process(Reader input, Writer output) throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException, StreamProcessingException;
     
+    // byte mode: 256-symbol wiring generated from a seed, independent of the loaded XML machine
+    CodeConfigurationResultDTO codeBytes(int rotorCount, long seed) throws InvalidConfigurationException;
+
+    byte[] processBytes(byte[] input) throws CodeNotConfiguredException, InvalidInputException;
+
+    void processBytes(ByteBuffer src, ByteBuffer dst) throws CodeNotConfiguredException, InvalidInputException;
+
+    long processBytes(InputStream input, OutputStream output) throws CodeNotConfiguredException, StreamProcessingException;
+
+    // encrypts a file with the byte-mode code; returns the number of bytes written
+    long processFile(Path source, Path destination) throws CodeNotConfiguredException, InvalidInputException, FileProcessingException;
+
     StatisticsDTO statistics() throws MachineNotLoadedException, CodeNotConfiguredException;
+
+    List<String> statisticsCodes() throws MachineNotLoadedException, CodeNotConfiguredException;
+
+    // cursor: StatisticsPageDTO.FIRST_PAGE, then the previous page's next cursor
+    StatisticsPageDTO statisticsPage(String code, long cursor, int limit) throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException;
+
+    long exportStatistics(Writer output, StatisticsExporter.Format format) throws MachineNotLoadedException, CodeNotConfiguredException, StreamProcessingException;
+
+    // per-code running totals, cheap enough to poll
+    StatisticsSummaryDTO statisticsSummary() throws MachineNotLoadedException, CodeNotConfiguredException;
+
+    // p50/p90/p99/p99.9/max of message latency and per-character time, per code and engine-wide
+    LatencySummaryDTO latencyStatistics() throws MachineNotLoadedException, CodeNotConfiguredException;
     
     void resetCurrentCode() throws MachineNotLoadedException, CodeNotConfiguredException;
 }
@@ -2,40 +2,92 @@ package mta.patmal.enigma.engine;
 
 import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
 import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.CodeStatisticsDTO;
+import mta.patmal.enigma.dto.LatencyStatisticsDTO;
+import mta.patmal.enigma.dto.LatencySummaryDTO;
 import mta.patmal.enigma.dto.MachineConfigSpecs;
 import mta.patmal.enigma.dto.MachineData;
 import mta.patmal.enigma.dto.ProcessingEntryDTO;
 import mta.patmal.enigma.dto.StatisticsDTO;
+import mta.patmal.enigma.dto.StatisticsPageDTO;
+import mta.patmal.enigma.dto.StatisticsSummaryDTO;
 import mta.patmal.enigma.engine.codeconfig.AutomaticCodeConfigurator;
 import mta.patmal.enigma.engine.codeconfig.ManualCodeConfigurator;
 import mta.patmal.enigma.engine.display.MachineDataFormatter;
+import mta.patmal.enigma.engine.display.StatisticsExporter;
 import mta.patmal.enigma.engine.exceptions.*;
 import loader.XmlLoader;
 import mta.patmal.enigma.machine.component.code.Code;
-import mta.patmal.enigma.machine.component.code.CodeImpl;
+import mta.patmal.enigma.machine.component.keyboard.Keyboard;
+import mta.patmal.enigma.machine.component.keyboard.KeyboardImpl;
+import mta.patmal.enigma.machine.component.machine.ByteMachine;
+import mta.patmal.enigma.machine.component.machine.ByteWiringGenerator;
 import mta.patmal.enigma.machine.component.machine.Machine;
 import mta.patmal.enigma.machine.component.machine.MachineImpl;
-import mta.patmal.enigma.machine.component.plugboard.Plugboard;
-
+import mta.patmal.enigma.machine.component.machine.MachineState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class EngineImpl implements Engine {
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+    private static final long FILE_WINDOW_BYTES = 1L << 24;
+    private static final int STREAM_BUFFER_SIZE = 1 << 13;
 
     private Machine machine;
-    private final XmlLoader xmlLoader = new XmlLoader();
-    private final MachineDataFormatter dataFormatter = new MachineDataFormatter(xmlLoader);
+    private final XmlLoader xmlLoader;
+    private final MachineDataFormatter dataFormatter;
     private int totalRotors;
     private int totalReflectors;
     private int messagesProcessed;
     private String originalCodeString;
     private String abc;
-    private Code originalCode;
-    private final Map<String, List<HistoryEntry>> history = new LinkedHashMap<>();
+    private Keyboard keyboard;
+    private MachineState originalState;
+    private final ByteMachine byteMachine = new ByteMachine();
+    private String byteCodeString;
+    private final HistoryStore history;
+    private final Map<String, CodeAggregate> aggregates = new LinkedHashMap<>();
+    private CodeAggregate engineAggregate = new CodeAggregate();
+    private final int parallelThreshold;
+
+    public EngineImpl() {
+        this(DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    // inputs of at least parallelThreshold characters are processed in chunks on the common pool; 0 disables
+    public EngineImpl(int parallelThreshold) {
+        this(parallelThreshold, HistoryPolicy.unbounded());
+    }
+
+    public EngineImpl(int parallelThreshold, HistoryPolicy historyPolicy) {
+        this(parallelThreshold, historyPolicy, new XmlLoader());
+    }
+
+    // the loader decides which Machine implementation loadXml builds
+    public EngineImpl(int parallelThreshold, HistoryPolicy historyPolicy, XmlLoader xmlLoader) {
+        this.xmlLoader = xmlLoader;
+        this.dataFormatter = new MachineDataFormatter(xmlLoader);
+        this.parallelThreshold = parallelThreshold;
+        this.history = new HistoryStore(historyPolicy);
+    }
 
     @Override
     public void loadXml(String path) throws XmlLoadException {
@@ -45,9 +97,19 @@ public class EngineImpl implements Engine {
             this.totalReflectors = xmlLoader.getTotalReflectorCount();
             this.messagesProcessed = 0;
             this.abc = xmlLoader.getABC();
+            this.keyboard = (machine instanceof MachineImpl machineImpl)
+                    ? machineImpl.getKeyboard()
+                    : new KeyboardImpl(abc);
             this.originalCodeString = null;
-            this.originalCode = null;
-            this.history.clear();
+            this.originalState = null;
+            // byte mode does not depend on the XML machine, so its statistics outlive the load
+            CodeAggregate byteAggregate = (byteCodeString == null) ? null : aggregates.get(byteCodeString);
+            this.history.retainOnly(byteCodeString);
+            this.aggregates.clear();
+            if (byteAggregate != null) {
+                this.aggregates.put(byteCodeString, byteAggregate);
+            }
+            this.engineAggregate = (byteAggregate == null) ? new CodeAggregate() : byteAggregate.copy();
         } catch (Exception e) {
             throw new XmlLoadException("Failed to load XML file: " + e.getMessage(), e);
         }
@@ -105,14 +167,7 @@ public class EngineImpl implements Engine {
         // Update original code after successful configuration
         if (machine instanceof MachineImpl machineImpl) {
             Code currentCode = machineImpl.getCode();
-            var rotors = currentCode.getRotors();
-            var reflector = currentCode.getReflector();
-            var positions = new ArrayList<Integer>();
-            for (var rotor : rotors) {
-                positions.add(rotor.getPosition());
-            }
-            Plugboard plugboard = currentCode.getPlugboard();
-            this.originalCode = new CodeImpl(rotors, positions, reflector, plugboard);
+            this.originalState = machineImpl.getState();
             this.originalCodeString = dataFormatter.formatCode(currentCode, machineImpl);
             
             return CodeConfigurationResultDTO.success(originalCodeString);
@@ -137,15 +192,7 @@ public class EngineImpl implements Engine {
         // Update original code after successful configuration
         if (machine instanceof MachineImpl machineImpl) {
             Code currentCode = machineImpl.getCode();
-            var rotors = currentCode.getRotors();
-            var reflector = currentCode.getReflector();
-            var positions = new ArrayList<Integer>();
-            for (var rotor : rotors) {
-                positions.add(rotor.getPosition());
-            }
-
-            Plugboard plugboard = currentCode.getPlugboard();
-            this.originalCode = new CodeImpl(rotors, positions, reflector, plugboard);
+            this.originalState = machineImpl.getState();
             this.originalCodeString = dataFormatter.formatCode(currentCode, machineImpl);
             
             return CodeConfigurationResultDTO.success(originalCodeString);
@@ -168,38 +215,221 @@ public class EngineImpl implements Engine {
             throw new InvalidInputException("Input cannot be empty.");
         }
 
-        // Validate all characters are in ABC
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-            if (abc.indexOf(c) == -1) {
-                throw new InvalidInputException("Invalid character '" + c + 
-                        "' at position " + (i + 1) + ". Character is not in the ABC: " + abc);
+        long start = System.nanoTime();
+
+        // Validate and process in a single pass; an invalid character leaves the machine untouched
+        char[] result = new char[input.length()];
+        input.getChars(0, input.length(), result, 0);
+        if (!(machine instanceof MachineImpl machineImpl)) {
+            int invalid = firstInvalidCharacter(result);
+            if (invalid != -1) {
+                throw invalidCharacter(input, invalid);
+            }
+            machine.process(result, 0, result, 0, result.length);
+        } else if (parallelThreshold > 0 && input.length() >= parallelThreshold) {
+            // the rotors only move once every chunk succeeded, so a failure needs no rollback
+            try {
+                result = machineImpl.processParallel(result, ForkJoinPool.commonPool());
+            } catch (IllegalArgumentException e) {
+                int invalid = firstInvalidCharacter(result);
+                if (invalid == -1) {
+                    throw e;
+                }
+                throw invalidCharacter(input, invalid);
             }
+        } else {
+            MachineState before = machineImpl.getState();
+            int processed = machineImpl.processWhileValid(result, 0, result, 0, result.length);
+            if (processed < result.length) {
+                machineImpl.setState(before);
+                throw invalidCharacter(input, processed);
+            }
+        }
+
+        long duration = System.nanoTime() - start;
+        String output = new String(result);
+
+        record(originalCodeString, new HistoryEntry(input, output, duration));
+
+        return output;
+    }
+
+    // one state check, one pass over all messages back to back and one history update for the batch
+    @Override
+    public List<String> processBatch(List<String> inputs) throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException {
+        if (machine == null) {
+            throw new MachineNotLoadedException();
+        }
+
+        if (originalCodeString == null) {
+            throw new CodeNotConfiguredException();
+        }
+
+        if (inputs == null) {
+            throw new InvalidInputException("Input cannot be empty.");
         }
 
         long start = System.nanoTime();
 
-        // Process the input
-        char[] result = new char[input.length()];
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-            result[i] = machine.process(c);
+        // walked with iterators only, so a LinkedList costs no more than an ArrayList
+        int[] ends = new int[inputs.size()];
+        long totalLength = 0;
+        int count = 0;
+        for (String input : inputs) {
+            if (input == null || input.isEmpty()) {
+                throw new InvalidInputException("Message " + (count + 1) + ": Input cannot be empty.");
+            }
+            totalLength += input.length();
+            if (totalLength > Integer.MAX_VALUE - 8) {
+                throw new InvalidInputException("Batch is too large; split it into smaller batches.");
+            }
+            ends[count++] = (int) totalLength;
         }
 
+        char[] chars = new char[(int) totalLength];
+        int offset = 0;
+        for (String input : inputs) {
+            input.getChars(0, input.length(), chars, offset);
+            offset += input.length();
+        }
+
+        // processing messages back to back is the same as processing them one call each
+        int processed;
+        if (machine instanceof MachineImpl machineImpl) {
+            MachineState before = machineImpl.getState();
+            processed = machineImpl.processWhileValid(chars, 0, chars, 0, chars.length);
+            if (processed < chars.length) {
+                machineImpl.setState(before);
+            }
+        } else {
+            int invalid = firstInvalidCharacter(chars);
+            processed = (invalid == -1) ? chars.length : invalid;
+            if (invalid == -1) {
+                machine.process(chars, 0, chars, 0, chars.length);
+            }
+        }
+        if (processed < chars.length) {
+            int message = 0;
+            while (ends[message] <= processed) {
+                message++;
+            }
+            int messageStart = (message == 0) ? 0 : ends[message - 1];
+            throw new InvalidInputException("Message " + (message + 1) + ": " +
+                    invalidCharacter(inputs.get(message), processed - messageStart).getMessage());
+        }
+
+        // the batch is timed as a whole; history shows each message its share by length, while
+        // the aggregates take the batch as one sample so the latency histograms stay measured
         long duration = System.nanoTime() - start;
-        String output = new String(result);
+        List<String> outputs = new ArrayList<>(ends.length);
+        List<HistoryEntry> entries = new ArrayList<>(ends.length);
+        offset = 0;
+        for (String input : inputs) {
+            String output = new String(chars, offset, input.length());
+            offset += input.length();
+            outputs.add(output);
+            entries.add(new HistoryEntry(input, output, (long) ((double) duration * input.length() / chars.length)));
+        }
+        recordBatch(originalCodeString, entries, chars.length, duration);
 
-        messagesProcessed++;
+        return outputs;
+    }
 
-        String codeKey = originalCodeString;
-        history.computeIfAbsent(codeKey, k -> new ArrayList<>())
-                .add(new HistoryEntry(input, output, duration));
+    @Override
+    public CodeConfigurationResultDTO codeBytes(int rotorCount, long seed) throws InvalidConfigurationException {
+        if (rotorCount < 1) {
+            throw new InvalidConfigurationException("Byte mode needs at least one rotor, got: " + rotorCount);
+        }
+        Code code = ByteWiringGenerator.generateCode(rotorCount, seed);
+        byteMachine.setCode(code);
+        this.byteCodeString = dataFormatter.formatByteCode(byteMachine.getCode());
+        return CodeConfigurationResultDTO.success(byteCodeString);
+    }
 
-        return output;
+    @Override
+    public byte[] processBytes(byte[] input) throws CodeNotConfiguredException, InvalidInputException {
+        if (input == null || input.length == 0) {
+            throw new InvalidInputException("Input cannot be empty.");
+        }
+        checkByteCode();
+        long start = System.nanoTime();
+        byte[] result = new byte[input.length];
+        byteMachine.process(input, 0, result, 0, input.length);
+        recordSizeOnly(byteCodeString, input.length, true, start);
+        return result;
     }
 
     @Override
-    public StatisticsDTO statistics() throws MachineNotLoadedException, CodeNotConfiguredException {
+    public void processBytes(ByteBuffer src, ByteBuffer dst) throws CodeNotConfiguredException, InvalidInputException {
+        if (src == null || !src.hasRemaining()) {
+            throw new InvalidInputException("Input cannot be empty.");
+        }
+        if (dst.remaining() < src.remaining()) {
+            throw new InvalidInputException("Output buffer has " + dst.remaining()
+                    + " bytes left, input has " + src.remaining() + ".");
+        }
+        checkByteCode();
+        long start = System.nanoTime();
+        int length = src.remaining();
+        byteMachine.process(src, dst);
+        recordSizeOnly(byteCodeString, length, true, start);
+    }
+
+    @Override
+    public long processFile(Path source, Path destination)
+            throws CodeNotConfiguredException, InvalidInputException, FileProcessingException {
+        checkByteCode();
+        if (source == null || destination == null) {
+            throw new InvalidInputException("Source and destination files are required.");
+        }
+        if (!Files.isRegularFile(source)) {
+            throw new InvalidInputException("Source is not a file: " + source);
+        }
+
+        try {
+            if (Files.exists(destination) && Files.isSameFile(source, destination)) {
+                throw new InvalidInputException("Destination must be a different file than the source.");
+            }
+
+            MachineState startState = byteMachine.getState();
+            long start = System.nanoTime();
+            long size;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                size = in.size();
+                if (size == 0) {
+                    throw new InvalidInputException("Input file is empty.");
+                }
+                try (FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    // one window of each file is mapped at a time, so heap use does not grow with the file
+                    for (long offset = 0; offset < size; offset += FILE_WINDOW_BYTES) {
+                        long window = Math.min(FILE_WINDOW_BYTES, size - offset);
+                        MappedByteBuffer src = in.map(FileChannel.MapMode.READ_ONLY, offset, window);
+                        MappedByteBuffer dst = out.map(FileChannel.MapMode.READ_WRITE, offset, window);
+                        byteMachine.process(src, dst);
+                    }
+                } catch (IOException e) {
+                    // a failed file leaves the rotors where they were
+                    byteMachine.setState(startState);
+                    throw e;
+                }
+            }
+            recordSizeOnly(byteCodeString, size, true, start);
+            return size;
+        } catch (IOException e) {
+            throw new FileProcessingException("Failed to process file " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void checkByteCode() throws CodeNotConfiguredException {
+        if (byteCodeString == null) {
+            throw new CodeNotConfiguredException("No byte-mode code configured. Please configure one with codeBytes first.");
+        }
+    }
+
+    @Override
+    public long process(Reader input, Writer output)
+            throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException, StreamProcessingException {
         if (machine == null) {
             throw new MachineNotLoadedException();
         }
@@ -208,23 +438,205 @@ public class EngineImpl implements Engine {
             throw new CodeNotConfiguredException();
         }
 
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        long written = 0;
+        long start = System.nanoTime();
+        try {
+            int n;
+            while ((n = input.read(buffer, 0, buffer.length)) != -1) {
+                // the valid prefix is still encrypted and written, so the output matches the input up to the error
+                int valid = machine.processWhileValid(buffer, 0, buffer, 0, n);
+                output.write(buffer, 0, valid);
+                written += valid;
+                if (valid < n) {
+                    output.flush();
+                    recordSizeOnly(originalCodeString, written, false, start);
+                    throw new InvalidInputException("Invalid character '" + buffer[valid] +
+                            "' at position " + (written + 1) + ". Character is not in the ABC: " + abc);
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            recordSizeOnly(originalCodeString, written, false, start);
+            throw new StreamProcessingException("Stream processing failed after " + written + " characters: " + e.getMessage(), e);
+        }
+
+        recordSizeOnly(originalCodeString, written, false, start);
+        return written;
+    }
+
+    @Override
+    public long processBytes(InputStream input, OutputStream output) throws CodeNotConfiguredException, StreamProcessingException {
+        checkByteCode();
+
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long written = 0;
+        long start = System.nanoTime();
+        try {
+            int n;
+            while ((n = input.read(buffer, 0, buffer.length)) != -1) {
+                byteMachine.process(buffer, 0, buffer, 0, n);
+                output.write(buffer, 0, n);
+                written += n;
+            }
+            output.flush();
+        } catch (IOException e) {
+            recordSizeOnly(byteCodeString, written, true, start);
+            throw new StreamProcessingException("Stream processing failed after " + written + " bytes: " + e.getMessage(), e);
+        }
+
+        recordSizeOnly(byteCodeString, written, true, start);
+        return written;
+    }
+
+    private int firstInvalidCharacter(char[] chars) {
+        for (int i = 0; i < chars.length; i++) {
+            if (keyboard.indexOf(chars[i]) == -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private InvalidInputException invalidCharacter(String input, int index) {
+        return new InvalidInputException("Invalid character '" + input.charAt(index) +
+                "' at position " + (index + 1) + ". Character is not in the ABC: " + abc);
+    }
+
+    // streams keep no content in the history, only how much went through and how long it took
+    private void recordSizeOnly(String codeKey, long length, boolean bytes, long start) {
+        if (length == 0) {
+            return;
+        }
+        record(codeKey, new HistoryEntry(length, bytes, System.nanoTime() - start));
+    }
+
+    private void record(String codeKey, HistoryEntry entry) {
+        messagesProcessed++;
+        history.record(codeKey, entry);
+        aggregates.computeIfAbsent(codeKey, k -> new CodeAggregate())
+                .record(entry.getLength(), entry.getDurationNanos());
+        engineAggregate.record(entry.getLength(), entry.getDurationNanos());
+    }
+
+    private void recordBatch(String codeKey, List<HistoryEntry> entries, long totalLength, long durationNanos) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        messagesProcessed += entries.size();
+        history.recordAll(codeKey, entries);
+        aggregates.computeIfAbsent(codeKey, k -> new CodeAggregate()).recordBatch(entries.size(), totalLength, durationNanos);
+        engineAggregate.recordBatch(entries.size(), totalLength, durationNanos);
+    }
+
+    // statistics cover both the XML machine and byte mode, so either configured code is enough
+    private void checkStatisticsAvailable() throws MachineNotLoadedException, CodeNotConfiguredException {
+        if (originalCodeString != null || byteCodeString != null) {
+            return;
+        }
+        if (machine == null) {
+            throw new MachineNotLoadedException();
+        }
+        throw new CodeNotConfiguredException();
+    }
+
+    @Override
+    public StatisticsDTO statistics() throws MachineNotLoadedException, CodeNotConfiguredException {
+        checkStatisticsAvailable();
+
         StatisticsDTO statisticsDTO = new StatisticsDTO();
 
-        for (Map.Entry<String, List<HistoryEntry>> entry : history.entrySet()) {
-            String code = entry.getKey();
-            List<HistoryEntry> entries = entry.getValue();
+        // retained window only, oldest first, so codes keep their first-seen order
+        history.forEach((code, h) -> statisticsDTO.addEntry(code, new ProcessingEntryDTO(
+                h.getInput(),
+                h.getOutput(),
+                h.getLength(),
+                h.isLengthInBytes(),
+                h.getDurationNanos()
+        )));
+
+        return statisticsDTO;
+    }
+
+    // codes with retained history, in the order they were first used
+    @Override
+    public List<String> statisticsCodes() throws MachineNotLoadedException, CodeNotConfiguredException {
+        checkStatisticsAvailable();
+
+        return history.codes();
+    }
+
+    @Override
+    public StatisticsPageDTO statisticsPage(String code, long cursor, int limit)
+            throws MachineNotLoadedException, CodeNotConfiguredException, InvalidInputException {
+        checkStatisticsAvailable();
+
+        if (cursor < 0 || limit < 1) {
+            throw new InvalidInputException("Page cursor cannot be negative and limit must be positive.");
+        }
 
-            for (HistoryEntry h : entries) {
-                ProcessingEntryDTO processingEntry = new ProcessingEntryDTO(
+        List<ProcessingEntryDTO> entries = new ArrayList<>(Math.min(limit, history.size(code)));
+        long nextCursor;
+        try {
+            nextCursor = history.forEach(code, cursor, limit, h -> entries.add(new ProcessingEntryDTO(
                     h.getInput(),
                     h.getOutput(),
+                    h.getLength(),
+                    h.isLengthInBytes(),
                     h.getDurationNanos()
-                );
-                statisticsDTO.addEntry(code, processingEntry);
-            }
+            )));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage());
         }
+        return new StatisticsPageDTO(code, cursor, history.size(code), entries, nextCursor);
+    }
 
-        return statisticsDTO;
+    // streams the retained history to the writer one entry at a time; returns the number of entries written
+    @Override
+    public long exportStatistics(Writer output, StatisticsExporter.Format format)
+            throws MachineNotLoadedException, CodeNotConfiguredException, StreamProcessingException {
+        checkStatisticsAvailable();
+
+        StatisticsExporter exporter = new StatisticsExporter(output, format);
+        long[] written = new long[1];
+        try {
+            exporter.writeHeader();
+            history.forEach((code, h) -> {
+                try {
+                    exporter.writeEntry(code, h.getInput(), h.getOutput(), h.getLength(), h.isLengthInBytes(), h.getDurationNanos());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            });
+            output.flush();
+        } catch (IOException | UncheckedIOException e) {
+            throw new StreamProcessingException("Statistics export failed after " + written[0] + " entries: " + e.getMessage(), e);
+        }
+        return written[0];
+    }
+
+    // O(number of codes): built from running aggregates, never from the history
+    @Override
+    public StatisticsSummaryDTO statisticsSummary() throws MachineNotLoadedException, CodeNotConfiguredException {
+        checkStatisticsAvailable();
+
+        List<CodeStatisticsDTO> codes = new ArrayList<>(aggregates.size());
+        for (Map.Entry<String, CodeAggregate> entry : aggregates.entrySet()) {
+            codes.add(entry.getValue().toDTO(entry.getKey()));
+        }
+        return new StatisticsSummaryDTO(codes, engineAggregate.toDTO(null));
+    }
+
+    @Override
+    public LatencySummaryDTO latencyStatistics() throws MachineNotLoadedException, CodeNotConfiguredException {
+        checkStatisticsAvailable();
+
+        List<LatencyStatisticsDTO> codes = new ArrayList<>(aggregates.size());
+        for (Map.Entry<String, CodeAggregate> entry : aggregates.entrySet()) {
+            codes.add(entry.getValue().toLatencyDTO(entry.getKey()));
+        }
+        return new LatencySummaryDTO(codes, engineAggregate.toLatencyDTO(null));
     }
 
     @Override
@@ -233,7 +645,7 @@ public class EngineImpl implements Engine {
             throw new MachineNotLoadedException();
         }
 
-        if (originalCode == null) {
+        if (originalState == null) {
             throw new CodeNotConfiguredException("No original code configured. Please configure a code first (command 3 or 4).");
         }
 
@@ -241,6 +653,7 @@ public class EngineImpl implements Engine {
             throw new MachineNotLoadedException("Machine is not a valid MachineImpl instance.");
         }
 
-        machineImpl.setCode(originalCode);
+        // same rotors as the original code, so restoring their positions is enough
+        machineImpl.setState(originalState);
     }
 }
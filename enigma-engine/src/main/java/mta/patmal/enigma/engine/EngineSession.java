@@ -0,0 +1,117 @@
+package mta.patmal.enigma.engine;
+
+import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
+import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.CodeStatisticsDTO;
+import mta.patmal.enigma.dto.MachineData;
+import mta.patmal.enigma.dto.StatisticsSummaryDTO;
+import mta.patmal.enigma.engine.codeconfig.AutomaticCodeConfigurator;
+import mta.patmal.enigma.engine.codeconfig.ManualCodeConfigurator;
+import mta.patmal.enigma.engine.exceptions.CodeNotConfiguredException;
+import mta.patmal.enigma.engine.exceptions.InvalidConfigurationException;
+import mta.patmal.enigma.engine.exceptions.InvalidInputException;
+import mta.patmal.enigma.machine.component.machine.MachineImpl;
+import mta.patmal.enigma.machine.component.machine.MachineState;
+import mta.patmal.enigma.machine.component.machine.MachineWiring;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One client over a shared definition: the wiring of its code is shared with every session
+ * on the same code, only the rotor positions in its MachineState belong to it. Its methods
+ * lock only the session itself.
+ */
+final class EngineSession {
+    private final MachineDefinition definition;
+    private MachineWiring wiring;
+    private MachineState state;
+    private MachineState originalState;
+    private MachineState rollback;
+    private String originalCodeString;
+    private int messagesProcessed;
+    private final Map<String, CodeAggregate> aggregates = new LinkedHashMap<>();
+    private final CodeAggregate sessionAggregate = new CodeAggregate();
+
+    EngineSession(MachineDefinition definition) {
+        this.definition = definition;
+    }
+
+    // the configurators validate and build the code on a scratch machine, whose wiring is then shared
+    synchronized CodeConfigurationResultDTO codeManual(CodeConfigurationRequestDTO request) throws InvalidConfigurationException {
+        MachineImpl configured = new MachineImpl(definition.getKeyboard());
+        ManualCodeConfigurator configurator = new ManualCodeConfigurator(configured, definition.getXmlLoader(),
+                definition.getAbc(), definition.getTotalRotors(), definition.getTotalReflectors(), definition.getRequiredRotors());
+        configurator.configure(request.getRotorIds(), request.getPositionsString(), request.getReflectorId(), request.getPlugsString());
+        return codeConfigured(configured);
+    }
+
+    synchronized CodeConfigurationResultDTO codeAutomatic() throws InvalidConfigurationException {
+        MachineImpl configured = new MachineImpl(definition.getKeyboard());
+        AutomaticCodeConfigurator configurator = new AutomaticCodeConfigurator(configured, definition.getXmlLoader(),
+                definition.getAbc(), definition.getTotalRotors(), definition.getTotalReflectors(), definition.getRequiredRotors());
+        configurator.configure();
+        return codeConfigured(configured);
+    }
+
+    private CodeConfigurationResultDTO codeConfigured(MachineImpl configured) {
+        String codeString = definition.getDataFormatter().formatCode(configured.getCode(), configured);
+        this.wiring = definition.wiringFor(codeString, configured.getWiring());
+        this.originalState = wiring.newState();
+        this.state = originalState.copy();
+        this.rollback = originalState.copy();
+        this.originalCodeString = codeString;
+        return CodeConfigurationResultDTO.success(originalCodeString);
+    }
+
+    synchronized String process(String input) throws CodeNotConfiguredException, InvalidInputException {
+        if (originalCodeString == null) {
+            throw new CodeNotConfiguredException();
+        }
+
+        if (input == null || input.isEmpty()) {
+            throw new InvalidInputException("Input cannot be empty.");
+        }
+
+        long start = System.nanoTime();
+
+        // an invalid character leaves the rotors where they were
+        char[] result = new char[input.length()];
+        input.getChars(0, input.length(), result, 0);
+        rollback.copyFrom(state);
+        int processed = wiring.processWhileValid(state, result, 0, result, 0, result.length);
+        if (processed < result.length) {
+            state.copyFrom(rollback);
+            throw new InvalidInputException("Invalid character '" + input.charAt(processed) +
+                    "' at position " + (processed + 1) + ". Character is not in the ABC: " + definition.getAbc());
+        }
+
+        long duration = System.nanoTime() - start;
+        messagesProcessed++;
+        aggregates.computeIfAbsent(originalCodeString, k -> new CodeAggregate()).record(result.length, duration);
+        sessionAggregate.record(result.length, duration);
+        return new String(result);
+    }
+
+    synchronized void resetCurrentCode() throws CodeNotConfiguredException {
+        if (originalState == null) {
+            throw new CodeNotConfiguredException("No original code configured. Please configure a code first (command 3 or 4).");
+        }
+        state.copyFrom(originalState);
+    }
+
+    synchronized MachineData showMachineData() {
+        return definition.getDataFormatter().createMachineData(wiring, state, originalCodeString,
+                definition.getTotalRotors(), definition.getTotalReflectors(), messagesProcessed);
+    }
+
+    synchronized StatisticsSummaryDTO statisticsSummary() {
+        List<CodeStatisticsDTO> codes = new ArrayList<>(aggregates.size());
+        for (Map.Entry<String, CodeAggregate> entry : aggregates.entrySet()) {
+            codes.add(entry.getValue().toDTO(entry.getKey()));
+        }
+        return new StatisticsSummaryDTO(codes, sessionAggregate.toDTO(null));
+    }
+}
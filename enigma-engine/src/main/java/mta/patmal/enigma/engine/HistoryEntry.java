@@ -3,15 +3,39 @@ package mta.patmal.enigma.engine;
 public class HistoryEntry {
     private final String input;
     private final String output;
+    private final long length;
+    private final boolean lengthInBytes;
     private final long durationNanos;
 
     public HistoryEntry(String input, String output, long durationNanos) {
         this.input = input;
         this.output = output;
+        this.length = input.length();
+        this.lengthInBytes = false;
+        this.durationNanos = durationNanos;
+    }
+
+    // content may be a preview or hash of the message, length is always that of the full message
+    public HistoryEntry(String input, String output, long length, long durationNanos) {
+        this.input = input;
+        this.output = output;
+        this.length = length;
+        this.lengthInBytes = false;
+        this.durationNanos = durationNanos;
+    }
+
+    // size-only entry, for traffic whose content is not kept (streams, files); length counts bytes or characters
+    public HistoryEntry(long length, boolean lengthInBytes, long durationNanos) {
+        this.input = null;
+        this.output = null;
+        this.length = length;
+        this.lengthInBytes = lengthInBytes;
         this.durationNanos = durationNanos;
     }
 
     public String getInput() { return input; }
     public String getOutput() { return output; }
+    public long getLength() { return length; }
+    public boolean isLengthInBytes() { return lengthInBytes; }
     public long getDurationNanos() { return durationNanos; }
 }
@@ -0,0 +1,43 @@
+package mta.patmal.enigma.engine;
+
+import java.time.Duration;
+
+/**
+ * Retention limits for the processing history. A limit of 0 (or a null age) means unbounded;
+ * when any limit is exceeded the oldest entries are evicted first. Messages longer than
+ * contentLimit are stored as a truncated preview or a hash, according to contentRetention.
+ */
+public class HistoryPolicy {
+    public enum ContentRetention { FULL, PREVIEW, HASH }
+
+    private final int maxEntries;
+    private final long maxRetainedChars;
+    private final Duration maxAge;
+    private final ContentRetention contentRetention;
+    private final int contentLimit;
+
+    public HistoryPolicy(int maxEntries, long maxRetainedChars, Duration maxAge,
+                         ContentRetention contentRetention, int contentLimit) {
+        if (maxEntries < 0 || maxRetainedChars < 0 || contentLimit < 0) {
+            throw new IllegalArgumentException("History limits cannot be negative");
+        }
+        if (maxAge != null && (maxAge.isNegative() || maxAge.isZero())) {
+            throw new IllegalArgumentException("Maximum history age must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxRetainedChars = maxRetainedChars;
+        this.maxAge = maxAge;
+        this.contentRetention = (contentRetention == null) ? ContentRetention.FULL : contentRetention;
+        this.contentLimit = contentLimit;
+    }
+
+    public static HistoryPolicy unbounded() {
+        return new HistoryPolicy(0, 0, null, ContentRetention.FULL, 0);
+    }
+
+    public int getMaxEntries() { return maxEntries; }
+    public long getMaxRetainedChars() { return maxRetainedChars; }
+    public Duration getMaxAge() { return maxAge; }
+    public ContentRetention getContentRetention() { return contentRetention; }
+    public int getContentLimit() { return contentLimit; }
+}
@@ -0,0 +1,274 @@
+package mta.patmal.enigma.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Processing history kept in a ring buffer, oldest entry first, and trimmed to a HistoryPolicy.
+ * Only the retained window keeps message content; totals over all traffic, evicted entries
+ * included, are kept by the engine's CodeAggregates.
+ */
+public class HistoryStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final String PREVIEW_SUFFIX = "...";
+    private static final String HASH_PREFIX = "sha256:";
+    private static final long NO_NEXT = -1;
+
+    private final HistoryPolicy policy;
+    private final long maxAgeNanos;
+
+    private String[] codes = new String[INITIAL_CAPACITY];
+    private HistoryEntry[] entries = new HistoryEntry[INITIAL_CAPACITY];
+    private long[] recordedAt = new long[INITIAL_CAPACITY];
+    // sequence of the next retained entry with the same code, so one code's entries form a chain
+    private long[] nextInCode = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    // sequence number of the entry at head; sequences keep counting across evictions and clears
+    private long headSequence;
+    private long retainedChars;
+    private final Map<String, CodeChain> chains = new LinkedHashMap<>();
+
+    public HistoryStore(HistoryPolicy policy) {
+        this.policy = policy;
+        this.maxAgeNanos = (policy.getMaxAge() == null) ? 0 : policy.getMaxAge().toNanos();
+    }
+
+    public void record(String code, HistoryEntry entry) {
+        record(code, entry, System.nanoTime());
+    }
+
+    // a batch shares one timestamp
+    public void recordAll(String code, List<HistoryEntry> batch) {
+        long now = System.nanoTime();
+        for (HistoryEntry entry : batch) {
+            record(code, entry, now);
+        }
+    }
+
+    void record(String code, HistoryEntry entry, long now) {
+        append(code, compact(entry), now);
+        evict(now);
+    }
+
+    private void append(String code, HistoryEntry entry, long now) {
+        if (size == entries.length) {
+            grow();
+        }
+        long sequence = headSequence + size;
+        int tail = slot(sequence);
+        codes[tail] = code;
+        entries[tail] = entry;
+        recordedAt[tail] = now;
+        nextInCode[tail] = NO_NEXT;
+        size++;
+        retainedChars += retainedChars(entry);
+
+        CodeChain chain = chains.get(code);
+        if (chain == null) {
+            chains.put(code, new CodeChain(sequence));
+        } else {
+            nextInCode[slot(chain.last)] = sequence;
+            chain.last = sequence;
+            chain.count++;
+        }
+    }
+
+    // retained entries, oldest first
+    public void forEach(BiConsumer<String, HistoryEntry> action) {
+        evict(System.nanoTime());
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % entries.length;
+            action.accept(codes[slot], entries[slot]);
+        }
+    }
+
+    /**
+     * Up to limit retained entries of one code, oldest first, starting at cursor: 0 for the
+     * first page, otherwise a cursor returned by the previous page (an entry's sequence + 1).
+     * Follows the code's chain, so a page costs O(limit). Returns the cursor of the next page,
+     * or -1 when there is none. A cursor whose entry has been evicted since resumes at the
+     * oldest retained entry.
+     */
+    public long forEach(String code, long cursor, int limit, Consumer<HistoryEntry> action) {
+        evict(System.nanoTime());
+        CodeChain chain = chains.get(code);
+        long sequence = cursor - 1;
+        if (chain == null || sequence > chain.last) {
+            return NO_NEXT;
+        }
+        if (sequence < headSequence) {
+            sequence = chain.first;
+        } else if (!codes[slot(sequence)].equals(code)) {
+            throw new IllegalArgumentException("Cursor " + cursor + " does not belong to code " + code);
+        }
+        for (int taken = 0; taken < limit && sequence != NO_NEXT; taken++) {
+            int slot = slot(sequence);
+            action.accept(entries[slot]);
+            sequence = nextInCode[slot];
+        }
+        return (sequence == NO_NEXT) ? NO_NEXT : sequence + 1;
+    }
+
+    // codes that still have retained entries, in the order they were first used
+    public List<String> codes() {
+        evict(System.nanoTime());
+        return new ArrayList<>(chains.keySet());
+    }
+
+    public int size(String code) {
+        evict(System.nanoTime());
+        CodeChain chain = chains.get(code);
+        return (chain == null) ? 0 : chain.count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(codes, null);
+        Arrays.fill(entries, null);
+        chains.clear();
+        headSequence += size;
+        head = 0;
+        size = 0;
+        retainedChars = 0;
+    }
+
+    // drops the entries of every other code; the kept ones keep their order and timestamps
+    public void retainOnly(String code) {
+        CodeChain chain = chains.get(code);
+        int count = (chain == null) ? 0 : chain.count;
+        HistoryEntry[] kept = new HistoryEntry[count];
+        long[] keptAt = new long[count];
+        long sequence = (chain == null) ? NO_NEXT : chain.first;
+        for (int i = 0; i < count; i++) {
+            int slot = slot(sequence);
+            kept[i] = entries[slot];
+            keptAt[i] = recordedAt[slot];
+            sequence = nextInCode[slot];
+        }
+        clear();
+        for (int i = 0; i < count; i++) {
+            append(code, kept[i], keptAt[i]);
+        }
+    }
+
+    private void evict(long now) {
+        int maxEntries = policy.getMaxEntries();
+        long maxChars = policy.getMaxRetainedChars();
+        while (size > 0 && ((maxEntries > 0 && size > maxEntries)
+                || (maxChars > 0 && retainedChars > maxChars)
+                || (maxAgeNanos > 0 && now - recordedAt[head] > maxAgeNanos))) {
+            retainedChars -= retainedChars(entries[head]);
+            CodeChain chain = chains.get(codes[head]);
+            if (--chain.count == 0) {
+                chains.remove(codes[head]);
+            } else {
+                chain.first = nextInCode[head];
+            }
+            codes[head] = null;
+            entries[head] = null;
+            head = (head + 1) % entries.length;
+            headSequence++;
+            size--;
+        }
+    }
+
+    // doubles the ring, but never beyond the entry limit or the largest array; long arithmetic
+    // keeps a limit of Integer.MAX_VALUE from overflowing
+    private void grow() {
+        long capacity = Math.min((long) entries.length * 2, MAX_CAPACITY);
+        if (policy.getMaxEntries() > 0) {
+            capacity = Math.min(capacity, (long) policy.getMaxEntries() + 1);
+        }
+        if (capacity <= entries.length) {
+            throw new IllegalStateException("History cannot hold more than " + entries.length + " entries");
+        }
+        String[] newCodes = new String[(int) capacity];
+        HistoryEntry[] newEntries = new HistoryEntry[(int) capacity];
+        long[] newRecordedAt = new long[(int) capacity];
+        long[] newNextInCode = new long[(int) capacity];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % entries.length;
+            newCodes[i] = codes[slot];
+            newEntries[i] = entries[slot];
+            newRecordedAt[i] = recordedAt[slot];
+            newNextInCode[i] = nextInCode[slot];
+        }
+        codes = newCodes;
+        entries = newEntries;
+        recordedAt = newRecordedAt;
+        nextInCode = newNextInCode;
+        head = 0;
+    }
+
+    // ring slot of a retained entry
+    private int slot(long sequence) {
+        return (int) ((head + (sequence - headSequence)) % entries.length);
+    }
+
+    private HistoryEntry compact(HistoryEntry entry) {
+        if (entry.getInput() == null || entry.getLength() <= policy.getContentLimit()) {
+            return entry;
+        }
+        switch (policy.getContentRetention()) {
+            case PREVIEW:
+                return new HistoryEntry(preview(entry.getInput()), preview(entry.getOutput()),
+                        entry.getLength(), entry.getDurationNanos());
+            case HASH:
+                return new HistoryEntry(hash(entry.getInput()), hash(entry.getOutput()),
+                        entry.getLength(), entry.getDurationNanos());
+            default:
+                return entry;
+        }
+    }
+
+    private String preview(String content) {
+        return content.substring(0, policy.getContentLimit()) + PREVIEW_SUFFIX;
+    }
+
+    private static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HASH_PREFIX + HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long retainedChars(HistoryEntry entry) {
+        long chars = 0;
+        if (entry.getInput() != null) {
+            chars += entry.getInput().length();
+        }
+        if (entry.getOutput() != null) {
+            chars += entry.getOutput().length();
+        }
+        return chars;
+    }
+
+    // one code's retained entries: how many, and the sequences of its oldest and newest
+    private static final class CodeChain {
+        private int count;
+        private long first;
+        private long last;
+
+        CodeChain(long sequence) {
+            this.count = 1;
+            this.first = sequence;
+            this.last = sequence;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package mta.patmal.enigma.engine;
+
+import loader.XmlLoader;
+import mta.patmal.enigma.dto.MachineConfigSpecs;
+import mta.patmal.enigma.engine.display.MachineDataFormatter;
+import mta.patmal.enigma.machine.component.keyboard.Keyboard;
+import mta.patmal.enigma.machine.component.keyboard.KeyboardImpl;
+import mta.patmal.enigma.machine.component.machine.Machine;
+import mta.patmal.enigma.machine.component.machine.MachineImpl;
+import mta.patmal.enigma.machine.component.machine.MachineWiring;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * One loaded XML machine. Its loader is never reloaded, so it is only read after construction
+ * and every session opened against it can create rotors and reflectors from it concurrently.
+ * Wirings of configured codes are cached here, so sessions on the same code share one.
+ */
+final class MachineDefinition {
+    private static final int MAX_CACHED_WIRINGS = 1024;
+
+    private final XmlLoader xmlLoader;
+    private final MachineDataFormatter dataFormatter;
+    private final Keyboard keyboard;
+    private final String abc;
+    private final int totalRotors;
+    private final int totalReflectors;
+    private final int requiredRotors;
+    private final Map<String, MachineWiring> wirings = new ConcurrentHashMap<>();
+
+    MachineDefinition(XmlLoader xmlLoader, Machine machine) {
+        this.xmlLoader = xmlLoader;
+        this.dataFormatter = new MachineDataFormatter(xmlLoader);
+        this.abc = xmlLoader.getABC();
+        this.keyboard = (machine instanceof MachineImpl machineImpl)
+                ? machineImpl.getKeyboard()
+                : new KeyboardImpl(abc);
+        this.totalRotors = xmlLoader.getTotalRotorCount();
+        this.totalReflectors = xmlLoader.getTotalReflectorCount();
+        this.requiredRotors = xmlLoader.getRequiredRotorsCount();
+    }
+
+    XmlLoader getXmlLoader() { return xmlLoader; }
+    MachineDataFormatter getDataFormatter() { return dataFormatter; }
+    Keyboard getKeyboard() { return keyboard; }
+    String getAbc() { return abc; }
+    int getTotalRotors() { return totalRotors; }
+    int getTotalReflectors() { return totalReflectors; }
+    int getRequiredRotors() { return requiredRotors; }
+
+    // the cached wiring of this code, or the candidate, which becomes cached while there is room
+    MachineWiring wiringFor(String codeString, MachineWiring candidate) {
+        MachineWiring cached = wirings.get(codeString);
+        if (cached != null) {
+            return cached;
+        }
+        if (wirings.size() >= MAX_CACHED_WIRINGS) {
+            return candidate;
+        }
+        cached = wirings.putIfAbsent(codeString, candidate);
+        return (cached != null) ? cached : candidate;
+    }
+
+    MachineConfigSpecs toConfigSpecs() {
+        List<Integer> availableRotorIds = IntStream.rangeClosed(1, totalRotors)
+                .boxed()
+                .collect(Collectors.toList());
+        List<Integer> availableReflectorIds = IntStream.rangeClosed(1, totalReflectors)
+                .boxed()
+                .collect(Collectors.toList());
+        return new MachineConfigSpecs(availableRotorIds, availableReflectorIds, requiredRotors, abc);
+    }
+}
@@ -0,0 +1,46 @@
+package mta.patmal.enigma.engine;
+
+import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
+import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.MachineConfigSpecs;
+import mta.patmal.enigma.dto.MachineData;
+import mta.patmal.enigma.dto.StatisticsSummaryDTO;
+import mta.patmal.enigma.engine.exceptions.*;
+
+/**
+ * Engine for many concurrent clients. Loaded definitions are shared read-only; every session
+ * opened against one has its own code and rotor state, so sessions never block each other.
+ */
+public interface SessionEngine {
+
+    // returns the definition id that sessions are opened against
+    String loadDefinition(String path) throws XmlLoadException;
+
+    void unloadDefinition(String definitionId) throws MachineNotLoadedException;
+
+    MachineConfigSpecs getMachineConfigSpecs(String definitionId) throws MachineNotLoadedException;
+
+    // returns the session id used by every other session call
+    String openSession(String definitionId) throws MachineNotLoadedException;
+
+    CodeConfigurationResultDTO codeManual(String sessionId, CodeConfigurationRequestDTO request) throws SessionNotFoundException, InvalidConfigurationException;
+
+    CodeConfigurationResultDTO codeAutomatic(String sessionId) throws SessionNotFoundException, InvalidConfigurationException;
+
+    String process(String sessionId, String input) throws SessionNotFoundException, CodeNotConfiguredException, InvalidInputException;
+
+    void resetCurrentCode(String sessionId) throws SessionNotFoundException, CodeNotConfiguredException;
+
+    MachineData showMachineData(String sessionId) throws SessionNotFoundException;
+
+    StatisticsSummaryDTO statisticsSummary(String sessionId) throws SessionNotFoundException;
+
+    void closeSession(String sessionId) throws SessionNotFoundException;
+
+    int getOpenSessionCount();
+
+    // engine-wide totals over all sessions, including closed ones
+    long getMessagesProcessed();
+
+    long getCharactersProcessed();
+}
@@ -0,0 +1,132 @@
+package mta.patmal.enigma.engine;
+
+import loader.XmlLoader;
+import mta.patmal.enigma.dto.CodeConfigurationRequestDTO;
+import mta.patmal.enigma.dto.CodeConfigurationResultDTO;
+import mta.patmal.enigma.dto.MachineConfigSpecs;
+import mta.patmal.enigma.dto.MachineData;
+import mta.patmal.enigma.dto.StatisticsSummaryDTO;
+import mta.patmal.enigma.engine.exceptions.*;
+import mta.patmal.enigma.machine.component.machine.Machine;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SessionEngineImpl implements SessionEngine {
+    private final Map<String, MachineDefinition> definitions = new ConcurrentHashMap<>();
+    private final Map<String, EngineSession> sessions = new ConcurrentHashMap<>();
+    private final LongAdder messagesProcessed = new LongAdder();
+    private final LongAdder charactersProcessed = new LongAdder();
+
+    @Override
+    public String loadDefinition(String path) throws XmlLoadException {
+        // a loader per definition, so loading never touches one that sessions are reading
+        XmlLoader xmlLoader = new XmlLoader();
+        MachineDefinition definition;
+        try {
+            Machine machine = xmlLoader.loadMachineFromXml(path);
+            definition = new MachineDefinition(xmlLoader, machine);
+        } catch (Exception e) {
+            throw new XmlLoadException("Failed to load XML file: " + e.getMessage(), e);
+        }
+        String definitionId = UUID.randomUUID().toString();
+        definitions.put(definitionId, definition);
+        return definitionId;
+    }
+
+    // sessions already open against the definition keep working until they are closed
+    @Override
+    public void unloadDefinition(String definitionId) throws MachineNotLoadedException {
+        if (definitionId == null || definitions.remove(definitionId) == null) {
+            throw new MachineNotLoadedException("No machine loaded with id " + definitionId + ".");
+        }
+    }
+
+    @Override
+    public MachineConfigSpecs getMachineConfigSpecs(String definitionId) throws MachineNotLoadedException {
+        return definition(definitionId).toConfigSpecs();
+    }
+
+    @Override
+    public String openSession(String definitionId) throws MachineNotLoadedException {
+        EngineSession session = new EngineSession(definition(definitionId));
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, session);
+        return sessionId;
+    }
+
+    @Override
+    public CodeConfigurationResultDTO codeManual(String sessionId, CodeConfigurationRequestDTO request)
+            throws SessionNotFoundException, InvalidConfigurationException {
+        return session(sessionId).codeManual(request);
+    }
+
+    @Override
+    public CodeConfigurationResultDTO codeAutomatic(String sessionId) throws SessionNotFoundException, InvalidConfigurationException {
+        return session(sessionId).codeAutomatic();
+    }
+
+    @Override
+    public String process(String sessionId, String input)
+            throws SessionNotFoundException, CodeNotConfiguredException, InvalidInputException {
+        String output = session(sessionId).process(input);
+        messagesProcessed.increment();
+        charactersProcessed.add(output.length());
+        return output;
+    }
+
+    @Override
+    public void resetCurrentCode(String sessionId) throws SessionNotFoundException, CodeNotConfiguredException {
+        session(sessionId).resetCurrentCode();
+    }
+
+    @Override
+    public MachineData showMachineData(String sessionId) throws SessionNotFoundException {
+        return session(sessionId).showMachineData();
+    }
+
+    @Override
+    public StatisticsSummaryDTO statisticsSummary(String sessionId) throws SessionNotFoundException {
+        return session(sessionId).statisticsSummary();
+    }
+
+    @Override
+    public void closeSession(String sessionId) throws SessionNotFoundException {
+        if (sessionId == null || sessions.remove(sessionId) == null) {
+            throw new SessionNotFoundException();
+        }
+    }
+
+    @Override
+    public int getOpenSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public long getMessagesProcessed() {
+        return messagesProcessed.sum();
+    }
+
+    @Override
+    public long getCharactersProcessed() {
+        return charactersProcessed.sum();
+    }
+
+    private MachineDefinition definition(String definitionId) throws MachineNotLoadedException {
+        MachineDefinition definition = (definitionId == null) ? null : definitions.get(definitionId);
+        if (definition == null) {
+            throw new MachineNotLoadedException("No machine loaded with id " + definitionId + ".");
+        }
+        return definition;
+    }
+
+    private EngineSession session(String sessionId) throws SessionNotFoundException {
+        EngineSession session = (sessionId == null) ? null : sessions.get(sessionId);
+        if (session == null) {
+            throw new SessionNotFoundException();
+        }
+        return session;
+    }
+}
@@ -61,7 +61,7 @@ public class AutomaticCodeConfigurator {
             wiring.put(b, a);
         }
 
-        return new PlugboardImpl(wiring);
+        return new PlugboardImpl(wiring, n);
     }
 
 
@@ -41,7 +41,7 @@ public class ManualCodeConfigurator {
     private Plugboard parseAndCreatePlugboard(String plugsString) throws InvalidConfigurationException {
         if (plugsString == null || plugsString.trim().isEmpty()) {
             // No plugs provided, return empty plugboard
-            return new PlugboardImpl(Collections.emptyMap());
+            return new PlugboardImpl(Collections.emptyMap(), abc.length());
         }
         String s = plugsString.trim();
         if (s.length() % 2 != 0) {
@@ -67,7 +67,7 @@ public class ManualCodeConfigurator {
             map.put(a_index, b_index);
             map.put(b_index, a_index);
         }
-        return new PlugboardImpl(map);
+        return new PlugboardImpl(map, abc.length());
     }
 
 
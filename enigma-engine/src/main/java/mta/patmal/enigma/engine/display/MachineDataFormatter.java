@@ -4,7 +4,10 @@ import loader.RomanNumeralUtils;
 import loader.XmlLoader;
 import mta.patmal.enigma.dto.MachineData;
 import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.machine.ByteMachine;
 import mta.patmal.enigma.machine.component.machine.MachineImpl;
+import mta.patmal.enigma.machine.component.machine.MachineState;
+import mta.patmal.enigma.machine.component.machine.MachineWiring;
 import mta.patmal.enigma.machine.component.plugboard.Plugboard;
 import mta.patmal.enigma.machine.component.reflector.Reflector;
 import mta.patmal.enigma.machine.component.rotor.Rotor;
@@ -41,25 +44,59 @@ public class MachineDataFormatter {
         return machineData;
     }
 
+    // session data from a shared wiring and the session's own rotor state
+    public MachineData createMachineData(MachineWiring wiring, MachineState state, String originalCodeString,
+                                         int totalRotors, int totalReflectors, int messagesProcessed) {
+        MachineData machineData = new MachineData(totalRotors, totalReflectors, messagesProcessed);
+        machineData.setOriginalCode(originalCodeString);
+        machineData.setCurrentCode((wiring != null) ? formatCode(wiring, state) : null);
+        return machineData;
+    }
+
     public String formatCode(Code code, MachineImpl machineImpl) {
         return formatCodeConfiguration(code, machineImpl);
     }
 
+    // the wiring's rotors are shared, so positions come from the state rather than the Rotor objects
+    public String formatCode(MachineWiring wiring, MachineState state) {
+        int rotorCount = wiring.getRotorCount();
+        int[] rotorIds = new int[rotorCount];
+        int[] notches = new int[rotorCount];
+        for (int i = 0; i < rotorCount; i++) {
+            rotorIds[i] = wiring.getRotorId(i);
+            notches[i] = wiring.getNotch(i);
+        }
+        return formatCodeConfiguration(rotorIds, state.getPositions(), notches,
+                wiring.getReflector(), wiring.getPlugboard(), wiring.getAlphabetSize());
+    }
+
     private String formatCodeConfiguration(Code code, MachineImpl machineImpl) {
         if (code == null) {
             return "No code configured.";
         }
 
         List<Rotor> rotors = code.getRotors();
-        Reflector reflector = code.getReflector();
-        int alphabetSize = machineImpl.getAlphabetSize();
+        int[] rotorIds = new int[rotors.size()];
+        int[] positions = new int[rotors.size()];
+        int[] notches = new int[rotors.size()];
+        for (int i = 0; i < rotors.size(); i++) {
+            rotorIds[i] = rotors.get(i).getId();
+            positions[i] = rotors.get(i).getPosition();
+            notches[i] = rotors.get(i).getNotch();
+        }
+        return formatCodeConfiguration(rotorIds, positions, notches, code.getReflector(),
+                code.getPlugboard(), machineImpl.getAlphabetSize());
+    }
 
+    // rotor arrays are rightmost first, as in Code
+    private String formatCodeConfiguration(int[] rotorIds, int[] positions, int[] notches, Reflector reflector,
+                                           Plugboard plugboard, int alphabetSize) {
         StringBuilder sb = new StringBuilder();
 
         // Rotor IDs section, from left (last in list) to right (first in list)
         sb.append("<");
-        for (int i = rotors.size() - 1; i >= 0; i--) {
-            sb.append(rotors.get(i).getId());
+        for (int i = rotorIds.length - 1; i >= 0; i--) {
+            sb.append(rotorIds[i]);
             if (i != 0) {
                 sb.append(",");
             }
@@ -68,11 +105,10 @@ public class MachineDataFormatter {
 
         // Positions and notch distances
         sb.append("<");
-        for (int i = rotors.size() - 1; i >= 0; i--) {
-            Rotor rotor = rotors.get(i);
-            int position = rotor.getPosition();
-            char windowChar = xmlLoader.getRightLetterByPosition(rotor.getId(), position);
-            int distance = (rotor.getNotch() - position + alphabetSize) % alphabetSize;
+        for (int i = rotorIds.length - 1; i >= 0; i--) {
+            int position = positions[i];
+            char windowChar = xmlLoader.getRightLetterByPosition(rotorIds[i], position);
+            int distance = (notches[i] - position + alphabetSize) % alphabetSize;
 
             sb.append(windowChar)
               .append("(")
@@ -89,7 +125,6 @@ public class MachineDataFormatter {
         String romanId = RomanNumeralUtils.intToRoman(reflector.getId());
         sb.append("<").append(romanId).append(">");
 
-        Plugboard plugboard = code.getPlugboard();
         String plugsString = formatPlugboard(plugboard);
         if (!plugsString.isEmpty()) {
             sb.append("<").append(plugsString).append(">");
@@ -98,6 +133,34 @@ public class MachineDataFormatter {
         return sb.toString();
     }
 
+    // byte-mode code: positions and notch distances in hex, since the byte values have no letters
+    public String formatByteCode(Code code) {
+        List<Rotor> rotors = code.getRotors();
+        int alphabetSize = ByteMachine.ALPHABET_SIZE;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<");
+        for (int i = rotors.size() - 1; i >= 0; i--) {
+            sb.append(rotors.get(i).getId());
+            if (i != 0) {
+                sb.append(",");
+            }
+        }
+        sb.append("><");
+        for (int i = rotors.size() - 1; i >= 0; i--) {
+            Rotor rotor = rotors.get(i);
+            int position = rotor.getPosition();
+            int distance = (rotor.getNotch() - position + alphabetSize) % alphabetSize;
+            sb.append(String.format("%02X(%d)", position, distance));
+            if (i != 0) {
+                sb.append(",");
+            }
+        }
+        sb.append(">");
+        sb.append("<").append(RomanNumeralUtils.intToRoman(code.getReflector().getId())).append(">");
+        return sb.toString();
+    }
+
     private String formatPlugboard(Plugboard plugboard) {
         Map<Integer, Integer> wiring = plugboard.getWiring();
 
@@ -0,0 +1,115 @@
+package mta.patmal.enigma.engine.display;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes history entries one line at a time, so an export never holds more than the entry
+ * being written. Content of size-only entries (streams, files) is written as empty / null,
+ * and the unit column says whether a length counts characters or bytes.
+ */
+public class StatisticsExporter {
+    public enum Format { CSV, JSONL }
+
+    private static final String CSV_HEADER = "code,input,output,length,unit,durationNanos";
+    private static final String UNIT_CHARACTERS = "characters";
+    private static final String UNIT_BYTES = "bytes";
+
+    private final Writer output;
+    private final Format format;
+
+    public StatisticsExporter(Writer output, Format format) {
+        this.output = output;
+        this.format = format;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == Format.CSV) {
+            output.write(CSV_HEADER);
+            output.write('\n');
+        }
+    }
+
+    public void writeEntry(String code, String input, String outputText, long length, boolean lengthInBytes,
+                           long durationNanos) throws IOException {
+        String unit = lengthInBytes ? UNIT_BYTES : UNIT_CHARACTERS;
+        if (format == Format.CSV) {
+            writeCsv(code);
+            output.write(',');
+            writeCsv(input);
+            output.write(',');
+            writeCsv(outputText);
+            output.write(',');
+            output.write(Long.toString(length));
+            output.write(',');
+            output.write(unit);
+            output.write(',');
+            output.write(Long.toString(durationNanos));
+        } else {
+            output.write("{\"code\":");
+            writeJson(code);
+            output.write(",\"input\":");
+            writeJson(input);
+            output.write(",\"output\":");
+            writeJson(outputText);
+            output.write(",\"length\":");
+            output.write(Long.toString(length));
+            output.write(",\"unit\":");
+            writeJson(unit);
+            output.write(",\"durationNanos\":");
+            output.write(Long.toString(durationNanos));
+            output.write('}');
+        }
+        output.write('\n');
+    }
+
+    // quoted only when needed, with embedded quotes doubled (RFC 4180)
+    private void writeCsv(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            output.write(value);
+            return;
+        }
+        output.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                output.write('"');
+            }
+            output.write(c);
+        }
+        output.write('"');
+    }
+
+    private void writeJson(String value) throws IOException {
+        if (value == null) {
+            output.write("null");
+            return;
+        }
+        output.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': output.write("\\\""); break;
+                case '\\': output.write("\\\\"); break;
+                case '\n': output.write("\\n"); break;
+                case '\r': output.write("\\r"); break;
+                case '\t': output.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        output.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        output.write(c);
+                    }
+            }
+        }
+        output.write('"');
+    }
+}
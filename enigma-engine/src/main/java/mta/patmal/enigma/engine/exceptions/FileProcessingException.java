@@ -0,0 +1,12 @@
+package mta.patmal.enigma.engine.exceptions;
+
+public class FileProcessingException extends EnigmaException {
+    
+    public FileProcessingException(String message) {
+        super(message);
+    }
+    
+    public FileProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package mta.patmal.enigma.engine.exceptions;
+
+public class SessionNotFoundException extends EnigmaException {
+
+    public SessionNotFoundException(String message) {
+        super(message);
+    }
+
+    public SessionNotFoundException() {
+        super("No such session. It was never opened or has already been closed.");
+    }
+}
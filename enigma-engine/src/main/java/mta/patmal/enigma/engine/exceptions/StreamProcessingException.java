@@ -0,0 +1,12 @@
+package mta.patmal.enigma.engine.exceptions;
+
+public class StreamProcessingException extends EnigmaException {
+    
+    public StreamProcessingException(String message) {
+        super(message);
+    }
+    
+    public StreamProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -5,12 +5,16 @@ import mta.patmal.enigma.machine.component.code.Code;
 import mta.patmal.enigma.machine.component.code.CodeImpl;
 import mta.patmal.enigma.machine.component.keyboard.Keyboard;
 import mta.patmal.enigma.machine.component.keyboard.KeyboardImpl;
+import mta.patmal.enigma.machine.component.machine.CompiledMachine;
+import mta.patmal.enigma.machine.component.machine.KeystreamTableMachine;
 import mta.patmal.enigma.machine.component.machine.Machine;
 import mta.patmal.enigma.machine.component.machine.MachineImpl;
+import mta.patmal.enigma.machine.component.machine.MachineMode;
 import mta.patmal.enigma.machine.component.plugboard.Plugboard;
 import mta.patmal.enigma.machine.component.plugboard.PlugboardImpl;
 import mta.patmal.enigma.machine.component.reflector.Reflector;
 import mta.patmal.enigma.machine.component.reflector.ReflectorImpl;
+import mta.patmal.enigma.machine.component.rotor.PrecomputedRotorImpl;
 import mta.patmal.enigma.machine.component.rotor.Rotor;
 import mta.patmal.enigma.machine.component.rotor.RotorImpl;
 
@@ -23,6 +27,36 @@ public class JaxbTranslator {
     private static final int INITIAL_RING_SETTING = 0;
     private static final int INDEX_NOT_FOUND = -1;
 
+    private final boolean precomputedRotors;
+    private final MachineMode machineMode;
+    private final long keystreamBudgetBytes;
+
+    public JaxbTranslator() {
+        this(false);
+    }
+
+    // precomputedRotors: build per-position rotor tables where the ABC is small enough
+    public JaxbTranslator(boolean precomputedRotors) {
+        this(precomputedRotors, MachineMode.STANDARD);
+    }
+
+    public JaxbTranslator(boolean precomputedRotors, MachineMode machineMode) {
+        this(precomputedRotors, machineMode, KeystreamTableMachine.DEFAULT_BUDGET_BYTES);
+    }
+
+    // keystreamBudgetBytes: memory the KEYSTREAM_TABLE mode may spend on one code's tables
+    public JaxbTranslator(boolean precomputedRotors, MachineMode machineMode, long keystreamBudgetBytes) {
+        if (machineMode == null) {
+            throw new IllegalArgumentException("Machine mode cannot be null");
+        }
+        if (keystreamBudgetBytes < 0) {
+            throw new IllegalArgumentException("Keystream table budget cannot be negative");
+        }
+        this.precomputedRotors = precomputedRotors;
+        this.machineMode = machineMode;
+        this.keystreamBudgetBytes = keystreamBudgetBytes;
+    }
+
     public Machine translateToMachine(BTEEnigma enigma) {
         String abc = enigma.getABC().trim();
         Keyboard keyboard = createKeyboard(abc);
@@ -39,13 +73,22 @@ public class JaxbTranslator {
     public Machine createMachineWithoutCode(BTEEnigma enigma) {
         String abc = enigma.getABC().trim();
         Keyboard keyboard = createKeyboard(abc);
-        return new MachineImpl(keyboard);
+        return createMachine(keyboard);
     }
     
     private Keyboard createKeyboard(String abc) {
         return new KeyboardImpl(abc);
     }
 
+    private Machine createMachine(Keyboard keyboard) {
+        return switch (machineMode) {
+            case STANDARD -> new MachineImpl(keyboard);
+            case FOLDED -> new MachineImpl(keyboard, true);
+            case KEYSTREAM_TABLE -> new KeystreamTableMachine(keyboard, keystreamBudgetBytes);
+            case COMPILED -> new CompiledMachine(keyboard);
+        };
+    }
+
     
     private List<BTERotor> selectRotors(BTEEnigma enigma) {
         List<BTERotor> bteRotors = enigma.getBTERotors().getBTERotor();
@@ -73,9 +116,9 @@ public class JaxbTranslator {
     }
     
     private Machine assembleMachine(Keyboard keyboard, List<Rotor> rotors, List<Integer> positions, Reflector reflector) {
-        Plugboard empty = new PlugboardImpl(Collections.emptyMap());
+        Plugboard empty = new PlugboardImpl(Collections.emptyMap(), keyboard.getAlphabetSize());
         Code code = new CodeImpl(rotors, positions, reflector, empty);
-        Machine machine = new MachineImpl(keyboard);
+        Machine machine = createMachine(keyboard);
         machine.setCode(code);
         return machine;
     }
@@ -90,9 +133,14 @@ public class JaxbTranslator {
     }
 
     public Rotor createRotorFromBte(BTERotor bteRotor, String abc) {
+        return createRotorFromBte(bteRotor, abc, precomputedRotors);
+    }
+
+    public Rotor createRotorFromBte(BTERotor bteRotor, String abc, boolean precomputed) {
         RotorWiring wiring = buildRotorWiring(bteRotor, abc);
         int notch = convertNotchToZeroBased(bteRotor.getNotch());
-        return createRotor(bteRotor.getId(), wiring, notch);
+        boolean usePrecomputed = precomputed && abc.length() <= PrecomputedRotorImpl.MAX_ALPHABET_SIZE;
+        return createRotor(bteRotor.getId(), wiring, notch, usePrecomputed);
     }
 
     public Rotor createRotorById(BTEEnigma enigma, int rotorId) {
@@ -152,8 +200,8 @@ public class JaxbTranslator {
 
 
     private RotorWiring buildRotorWiring(BTERotor bteRotor, String abc) {
-        Map<Integer, Integer> forwardWiring = new HashMap<>();
-        Map<Integer, Integer> backwardWiring = new HashMap<>();
+        int[] forwardWiring = new int[abc.length()];
+        int[] backwardWiring = new int[abc.length()];
         
         for (BTEPositioning positioning : bteRotor.getBTEPositioning()) {
             char leftChar = positioning.getLeft().charAt(0);
@@ -167,8 +215,8 @@ public class JaxbTranslator {
                         "Character not found in ABC: left=" + leftChar + ", right=" + rightChar);
             }
             
-            forwardWiring.put(leftIndex, rightIndex);
-            backwardWiring.put(rightIndex, leftIndex);
+            forwardWiring[leftIndex] = rightIndex;
+            backwardWiring[rightIndex] = leftIndex;
         }
         
         return new RotorWiring(forwardWiring, backwardWiring);
@@ -178,7 +226,17 @@ public class JaxbTranslator {
         return notch - 1;
     }
     
-    private Rotor createRotor(int id, RotorWiring wiring, int notch) {
+    private Rotor createRotor(int id, RotorWiring wiring, int notch, boolean precomputed) {
+        if (precomputed) {
+            return new PrecomputedRotorImpl(
+                    id,
+                    wiring.forward,
+                    wiring.backward,
+                    INITIAL_POSITION,
+                    notch,
+                    INITIAL_RING_SETTING
+            );
+        }
         return new RotorImpl(
                 id,
                 wiring.forward,
@@ -190,10 +248,10 @@ public class JaxbTranslator {
     }
     
     private static class RotorWiring {
-        final Map<Integer, Integer> forward;
-        final Map<Integer, Integer> backward;
+        final int[] forward;
+        final int[] backward;
         
-        RotorWiring(Map<Integer, Integer> forward, Map<Integer, Integer> backward) {
+        RotorWiring(int[] forward, int[] backward) {
             this.forward = forward;
             this.backward = backward;
         }
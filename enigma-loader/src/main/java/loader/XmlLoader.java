@@ -18,7 +18,12 @@ public class XmlLoader {
     private final XmlValidator xmlValidator;
 
     public XmlLoader() {
-        this(new JaxbLoader(), new JaxbTranslator(), new XmlValidator());
+        this(new JaxbTranslator());
+    }
+
+    // selects rotor tables and machine mode through the translator
+    public XmlLoader(JaxbTranslator jaxbTranslator) {
+        this(new JaxbLoader(), jaxbTranslator, new XmlValidator());
     }
 
     public XmlLoader(JaxbLoader jaxbLoader, JaxbTranslator jaxbTranslator, XmlValidator xmlValidator) {
@@ -178,12 +178,13 @@ public class XmlValidator {
 
         Set<Integer> ids = new HashSet<>();
         int maxId = Integer.MIN_VALUE;
+        int abcSize = getAbcSize(machine);
 
         for (BTEReflector reflector : reflectors) {
             int numericId = parseAndValidateReflectorId(reflector.getId());
             validateUniqueReflectorId(ids, reflector.getId(), numericId);
             maxId = Math.max(maxId, numericId);
-            validateSingleReflectorMappings(reflector);
+            validateSingleReflectorMappings(reflector, abcSize);
         }
 
         validateReflectorIdSequence(ids, maxId);
@@ -217,12 +218,13 @@ public class XmlValidator {
         }
     }
 
-    private void validateSingleReflectorMappings(BTEReflector reflector) {
+    private void validateSingleReflectorMappings(BTEReflector reflector, int abcSize) {
         List<BTEReflect> mappings = reflector.getBTEReflect();
         if (mappings == null || mappings.isEmpty()) {
             throw new IllegalStateException("Reflector " + reflector.getId() + " has no mappings");
         }
 
+        Set<Integer> usedPositions = new HashSet<>();
         for (BTEReflect mapping : mappings) {
             int input = mapping.getInput();
             int output = mapping.getOutput();
@@ -231,6 +233,24 @@ public class XmlValidator {
                 throw new IllegalArgumentException("Reflector " + reflector.getId() +
                         " has a mapping from position to itself: " + input);
             }
+            validateReflectorPosition(reflector.getId(), input, abcSize, usedPositions);
+            validateReflectorPosition(reflector.getId(), output, abcSize, usedPositions);
+        }
+
+        if (usedPositions.size() != abcSize) {
+            throw new IllegalArgumentException("Reflector " + reflector.getId() +
+                    " must map every position 1.." + abcSize + ", but maps only " + usedPositions.size());
+        }
+    }
+
+    private void validateReflectorPosition(String reflectorId, int position, int abcSize, Set<Integer> usedPositions) {
+        if (position < 1 || position > abcSize) {
+            throw new IllegalArgumentException("Reflector " + reflectorId +
+                    " position " + position + " is out of range 1.." + abcSize);
+        }
+        if (!usedPositions.add(position)) {
+            throw new IllegalArgumentException("Reflector " + reflectorId +
+                    " maps position " + position + " more than once");
         }
     }
 }
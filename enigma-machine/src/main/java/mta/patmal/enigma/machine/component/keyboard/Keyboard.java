@@ -2,6 +2,7 @@ package mta.patmal.enigma.machine.component.keyboard;
 
 public interface Keyboard {
     int processChar(char input);
+    int indexOf(char input);
     char lightALamp(int input);
     int getAlphabetSize();
 }
@@ -1,22 +1,79 @@
 package mta.patmal.enigma.machine.component.keyboard;
 
+import java.util.Arrays;
+
 public class KeyboardImpl implements Keyboard {
+    // alphabets whose highest char is below this get a dense table, others an open-addressed one
+    private static final int DENSE_TABLE_LIMIT = 1 << 12;
+    private static final int NOT_FOUND = -1;
+
     private final String alphabet;
+    private final int[] denseIndex;
+    private final char[] hashedChars;
+    private final int[] hashedIndex;
+    private final int hashMask;
+    private final int hashShift;
 
     public KeyboardImpl(String alphabet) {
         if (alphabet == null || alphabet.isEmpty()) {
             throw new IllegalArgumentException("Alphabet cannot be empty");
         }
         this.alphabet = alphabet;
+
+        int maxChar = 0;
+        for (int i = 0; i < alphabet.length(); i++) {
+            maxChar = Math.max(maxChar, alphabet.charAt(i));
+        }
+
+        if (maxChar < DENSE_TABLE_LIMIT) {
+            this.denseIndex = new int[maxChar + 1];
+            Arrays.fill(denseIndex, NOT_FOUND);
+            for (int i = alphabet.length() - 1; i >= 0; i--) {
+                denseIndex[alphabet.charAt(i)] = i;
+            }
+            this.hashedChars = null;
+            this.hashedIndex = null;
+            this.hashMask = 0;
+            this.hashShift = 0;
+        } else {
+            int capacity = Integer.highestOneBit(alphabet.length()) << 2;
+            this.denseIndex = null;
+            this.hashedChars = new char[capacity];
+            this.hashedIndex = new int[capacity];
+            this.hashMask = capacity - 1;
+            this.hashShift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+            Arrays.fill(hashedIndex, NOT_FOUND);
+            for (int i = 0; i < alphabet.length(); i++) {
+                insertHashed(alphabet.charAt(i), i);
+            }
+        }
     }
+
     @Override
     public int processChar(char input) {
-        int index = alphabet.indexOf(input);
-        if (index == -1) {
+        int index = indexOf(input);
+        if (index == NOT_FOUND) {
             throw new IllegalArgumentException("Input character not in alphabet");
         }
         return index;
     }
+
+    // O(1) alphabet index of the character, or -1 if it is not in the alphabet
+    @Override
+    public int indexOf(char input) {
+        if (denseIndex != null) {
+            return input < denseIndex.length ? denseIndex[input] : NOT_FOUND;
+        }
+        int slot = hash(input);
+        while (hashedIndex[slot] != NOT_FOUND) {
+            if (hashedChars[slot] == input) {
+                return hashedIndex[slot];
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return NOT_FOUND;
+    }
+
     @Override
     public char lightALamp(int input) {
         if (input < 0 || input >= alphabet.length()) {
@@ -29,4 +86,20 @@ public class KeyboardImpl implements Keyboard {
     public int getAlphabetSize() {
         return alphabet.length();
     }
+
+    private void insertHashed(char c, int index) {
+        int slot = hash(c);
+        while (hashedIndex[slot] != NOT_FOUND) {
+            if (hashedChars[slot] == c) {
+                return; // keep the first occurrence, like String.indexOf
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        hashedChars[slot] = c;
+        hashedIndex[slot] = index;
+    }
+
+    private int hash(char c) {
+        return (c * 0x9E3779B1) >>> hashShift;
+    }
 }
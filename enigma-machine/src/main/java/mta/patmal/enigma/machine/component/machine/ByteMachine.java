@@ -0,0 +1,277 @@
+package mta.patmal.enigma.machine.component.machine;
+
+import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.rotor.Direction;
+import mta.patmal.enigma.machine.component.rotor.Rotor;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Enigma over the 256 byte values, for binary payloads. Every byte is its own alphabet index,
+ * so there is no keyboard and no char decoding. The code is flattened into tables and rotor
+ * offsets wrap with a mask instead of a modulo.
+ */
+public class ByteMachine {
+    public static final int ALPHABET_SIZE = 256;
+    private static final int MASK = ALPHABET_SIZE - 1;
+    private static final int TRANSFER_BYTES = 1 << 13;
+
+    private Code code;
+    private int rotorCount;
+    private int[] forward;      // [rotor * 256 + contact]
+    private int[] backward;
+    private int[] reflector;
+    private int[] plugboard;
+    private int[] notches;
+    private int[] positions;
+    private boolean rotorsStale;
+
+    // per-position tables: plugboard + rightmost rotor in and out, then the second rotor
+    private final byte[] entry = new byte[ALPHABET_SIZE * ALPHABET_SIZE];
+    private final byte[] exit = new byte[ALPHABET_SIZE * ALPHABET_SIZE];
+
+    private final byte[] middleForward = new byte[ALPHABET_SIZE * ALPHABET_SIZE];
+    private final byte[] middleBackward = new byte[ALPHABET_SIZE * ALPHABET_SIZE];
+
+    // the remaining rotors + reflector only change on a carry out of the rightmost rotor,
+    // and all but the second rotor only when that one carries too
+    private final byte[] inner = new byte[ALPHABET_SIZE];
+    private final byte[] outer = new byte[ALPHABET_SIZE];
+
+    private final byte[] transfer = new byte[TRANSFER_BYTES];
+
+    public void setCode(Code code) {
+        List<Rotor> rotors = code.getRotors();
+        List<Integer> codePositions = code.getPositions();
+        int rotorCount = rotors.size();
+
+        int[] forward = new int[rotorCount * ALPHABET_SIZE];
+        int[] backward = new int[rotorCount * ALPHABET_SIZE];
+        int[] notches = new int[rotorCount];
+        int[] positions = new int[rotorCount];
+        for (int r = 0; r < rotorCount; r++) {
+            Rotor rotor = rotors.get(r);
+            for (int i = 0; i < ALPHABET_SIZE; i++) {
+                forward[r * ALPHABET_SIZE + i] = rotor.process(i, Direction.FORWARD, 0);
+                backward[r * ALPHABET_SIZE + i] = rotor.process(i, Direction.BACKWARD, 0);
+            }
+            checkPermutation(forward, r * ALPHABET_SIZE, "Rotor " + rotor.getId());
+            notches[r] = rotor.getNotch();
+            positions[r] = Math.floorMod(codePositions.get(r), ALPHABET_SIZE);
+        }
+
+        int[] reflector = new int[ALPHABET_SIZE];
+        int[] plugboard = new int[ALPHABET_SIZE];
+        try {
+            for (int i = 0; i < ALPHABET_SIZE; i++) {
+                reflector[i] = code.getReflector().process(i);
+                plugboard[i] = code.getPlugboard().process(i);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Reflector and plugboard must cover all "
+                    + ALPHABET_SIZE + " byte values", e);
+        }
+        checkPermutation(reflector, 0, "Reflector " + code.getReflector().getId());
+        checkPermutation(plugboard, 0, "Plugboard");
+
+        this.code = code;
+        this.rotorCount = rotorCount;
+        this.forward = forward;
+        this.backward = backward;
+        this.reflector = reflector;
+        this.plugboard = plugboard;
+        this.notches = notches;
+        this.positions = positions;
+        this.rotorsStale = true;
+        buildPositionTables();
+        rebuildPermutations();
+    }
+
+    // src and dst may be the same array, processing in place
+    public void process(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        checkCode();
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        byte[] entry = this.entry;
+        byte[] inner = this.inner;
+        byte[] exit = this.exit;
+        int i = 0;
+        while (i < len) {
+            // between carries the inner permutation is fixed, so those bytes are three plain lookups
+            int end = i + Math.min(len - i, bytesBeforeCarry());
+            int position = positions[0];
+            for (; i < end; i++) {
+                position = (position + 1) & MASK;
+                int row = position << Byte.SIZE;
+                int intermediate = inner[entry[row | (src[srcOff + i] & MASK)] & MASK] & MASK;
+                dst[dstOff + i] = exit[row | intermediate];
+            }
+            positions[0] = position;
+            if (i < len) {
+                dst[dstOff + i] = (byte) processIndex(src[srcOff + i] & MASK);
+                i++;
+            }
+        }
+        rotorsStale = true;
+    }
+
+    // consumes src until it is empty, writing to dst; heap buffers go through their backing arrays,
+    // direct and mapped ones through a small transfer array so they share the bulk loop
+    public void process(ByteBuffer src, ByteBuffer dst) {
+        checkCode();
+        int len = src.remaining();
+        if (dst.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            process(src.array(), src.arrayOffset() + src.position(),
+                    dst.array(), dst.arrayOffset() + dst.position(), len);
+            src.position(src.position() + len);
+            dst.position(dst.position() + len);
+            return;
+        }
+        while (src.hasRemaining()) {
+            int chunk = Math.min(src.remaining(), transfer.length);
+            src.get(transfer, 0, chunk);
+            process(transfer, 0, transfer, 0, chunk);
+            dst.put(transfer, 0, chunk);
+        }
+    }
+
+    public void jumpAhead(long bytes) {
+        checkCode();
+        RotorStepping.jumpAhead(positions, notches, ALPHABET_SIZE, bytes);
+        rotorsStale = true;
+        rebuildPermutations();
+    }
+
+    public MachineState getState() {
+        checkCode();
+        return new MachineState(positions);
+    }
+
+    public void setState(MachineState state) {
+        checkCode();
+        if (state.getRotorCount() != rotorCount) {
+            throw new IllegalArgumentException("State has " + state.getRotorCount()
+                    + " rotor positions, machine has " + rotorCount + " rotors");
+        }
+        for (int i = 0; i < rotorCount; i++) {
+            positions[i] = Math.floorMod(state.positions[i], ALPHABET_SIZE);
+        }
+        rotorsStale = true;
+        rebuildPermutations();
+    }
+
+    public Code getCode() {
+        if (code != null && rotorsStale) {
+            List<Rotor> rotors = code.getRotors();
+            for (int i = 0; i < rotorCount; i++) {
+                rotors.get(i).setPosition(positions[i]);
+            }
+            rotorsStale = false;
+        }
+        return code;
+    }
+
+    private int processIndex(int intermediate) {
+        // a carry out of the rightmost rotor changes the inner permutation, one out of the second the outer one
+        int stepped = RotorStepping.step(positions, notches, ALPHABET_SIZE);
+        if (stepped > 2) {
+            buildOuter();
+        }
+        if (stepped > 1) {
+            buildInner();
+        }
+
+        int row = positions[0] << Byte.SIZE;
+        intermediate = inner[entry[row | intermediate] & MASK] & MASK;
+        return exit[row | intermediate] & MASK;
+    }
+
+    // keystrokes the rightmost rotor can take before one steps it onto its notch
+    private int bytesBeforeCarry() {
+        if (rotorCount == 1) {
+            return Integer.MAX_VALUE;
+        }
+        int untilNotch = (notches[0] - positions[0]) & MASK;
+        return (untilNotch == 0 ? ALPHABET_SIZE : untilNotch) - 1;
+    }
+
+    // rotors 2..n + reflector at their current positions; rebuilt on every carry, i.e. once per 256 bytes
+    private void buildInner() {
+        if (rotorCount == 1) {
+            for (int i = 0; i < ALPHABET_SIZE; i++) {
+                inner[i] = (byte) reflector[i];
+            }
+            return;
+        }
+        int row = positions[1] << Byte.SIZE;
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            int intermediate = outer[middleForward[row | i] & MASK] & MASK;
+            inner[i] = middleBackward[row | intermediate];
+        }
+    }
+
+    // rotors 3..n + reflector, which only change when the second rotor carries
+    private void buildOuter() {
+        for (int input = 0; input < ALPHABET_SIZE; input++) {
+            int intermediate = input;
+            for (int r = 2, row = 2 * ALPHABET_SIZE; r < rotorCount; r++, row += ALPHABET_SIZE) {
+                int shift = positions[r];
+                intermediate = (forward[row + ((intermediate + shift) & MASK)] - shift) & MASK;
+            }
+            intermediate = reflector[intermediate];
+            for (int r = rotorCount - 1, row = r * ALPHABET_SIZE; r >= 2; r--, row -= ALPHABET_SIZE) {
+                int shift = positions[r];
+                intermediate = (backward[row + ((intermediate + shift) & MASK)] - shift) & MASK;
+            }
+            outer[input] = (byte) intermediate;
+        }
+    }
+
+    // plugboard folded into the rightmost rotor, and the second rotor, one 256-entry row per position
+    private void buildPositionTables() {
+        for (int position = 0; position < ALPHABET_SIZE; position++) {
+            int row = position << Byte.SIZE;
+            for (int i = 0; i < ALPHABET_SIZE; i++) {
+                int contact = (i + position) & MASK;
+                entry[row | i] = (byte) ((forward[(plugboard[i] + position) & MASK] - position) & MASK);
+                exit[row | i] = (byte) plugboard[(backward[contact] - position) & MASK];
+                if (rotorCount > 1) {
+                    middleForward[row | i] = (byte) (forward[ALPHABET_SIZE + contact] - position);
+                    middleBackward[row | i] = (byte) (backward[ALPHABET_SIZE + contact] - position);
+                }
+            }
+        }
+    }
+
+    private void rebuildPermutations() {
+        if (rotorCount > 1) {
+            buildOuter();
+        }
+        buildInner();
+    }
+
+    private void checkCode() {
+        if (code == null) {
+            throw new IllegalStateException("No code configured");
+        }
+    }
+
+    // components built for a smaller alphabet wrap around and repeat outputs, so this also checks their size
+    private static void checkPermutation(int[] table, int offset, String component) {
+        boolean[] seen = new boolean[ALPHABET_SIZE];
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            int output = table[offset + i];
+            if (output < 0 || output >= ALPHABET_SIZE || seen[output]) {
+                throw new IllegalArgumentException(component + " is not a permutation of the "
+                        + ALPHABET_SIZE + " byte values");
+            }
+            seen[output] = true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package mta.patmal.enigma.machine.component.machine;
+
+import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.code.CodeImpl;
+import mta.patmal.enigma.machine.component.plugboard.PlugboardImpl;
+import mta.patmal.enigma.machine.component.reflector.Reflector;
+import mta.patmal.enigma.machine.component.reflector.ReflectorImpl;
+import mta.patmal.enigma.machine.component.rotor.Rotor;
+import mta.patmal.enigma.machine.component.rotor.RotorImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates 256-symbol rotors and reflectors for ByteMachine. An XML ABC cannot declare all
+ * byte values (most control characters are not legal XML), so byte-mode wiring comes from a seed:
+ * the same seed always yields the same code.
+ */
+public final class ByteWiringGenerator {
+    private static final int SIZE = ByteMachine.ALPHABET_SIZE;
+
+    private ByteWiringGenerator() {
+    }
+
+    // rotors are listed rightmost first with ids 1..rotorCount, reflector id 1, empty plugboard
+    public static Code generateCode(int rotorCount, long seed) {
+        if (rotorCount < 1) {
+            throw new IllegalArgumentException("At least one rotor is required, got: " + rotorCount);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<Rotor> rotors = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < rotorCount; i++) {
+            rotors.add(generateRotor(i + 1, random));
+            positions.add(random.nextInt(SIZE));
+        }
+        Reflector reflector = generateReflector(1, random);
+
+        return new CodeImpl(rotors, positions, reflector, new PlugboardImpl(Collections.emptyMap(), SIZE));
+    }
+
+    public static Rotor generateRotor(int id, SplittableRandom random) {
+        int[] forward = shuffledIndices(random);
+        int[] backward = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            backward[forward[i]] = i;
+        }
+        return new RotorImpl(id, forward, backward, 0, random.nextInt(SIZE), 0);
+    }
+
+    // pairs up consecutive entries of a shuffle, so no byte value reflects to itself
+    public static Reflector generateReflector(int id, SplittableRandom random) {
+        int[] order = shuffledIndices(random);
+        Map<Integer, Integer> wiring = new HashMap<>();
+        for (int i = 0; i < SIZE; i += 2) {
+            wiring.put(order[i], order[i + 1]);
+            wiring.put(order[i + 1], order[i]);
+        }
+        return new ReflectorImpl(id, wiring);
+    }
+
+    private static int[] shuffledIndices(SplittableRandom random) {
+        int[] indices = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            indices[i] = i;
+        }
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+        return indices;
+    }
+}
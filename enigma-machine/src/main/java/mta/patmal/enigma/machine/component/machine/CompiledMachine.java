@@ -0,0 +1,131 @@
+package mta.patmal.enigma.machine.component.machine;
+
+import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.keyboard.Keyboard;
+import mta.patmal.enigma.machine.component.rotor.Rotor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Machine that compiles plugboard -> rotors -> reflector -> rotors -> plugboard into one
+ * permutation per keystroke since the code's initial state, stored in a flat trace indexed by
+ * that offset. Resending traffic after a reset walks the same offsets again, so it becomes
+ * one array load per character. Entries are filled on first use, so a miss never costs more
+ * than the plain path. States off the trace (after setting any other state) use the plain path.
+ */
+public class CompiledMachine extends MachineImpl {
+    public static final int DEFAULT_MAX_TRACE_ENTRIES = 1 << 22;
+    private static final int INITIAL_TRACE_ENTRIES = 1 << 12;
+    private static final int NOT_COMPILED = -1;
+
+    private final int maxTraceEntries;
+    private int[] trace = new int[0];   // [offset * size + input]
+    private int[] origin;
+    private int size;
+    private int maxOffsets;
+    private int offset;
+    private boolean onTrace;
+
+    public CompiledMachine(Keyboard keyboard) {
+        this(keyboard, DEFAULT_MAX_TRACE_ENTRIES);
+    }
+
+    // maxTraceEntries bounds the trace to that many ints, i.e. maxTraceEntries / |ABC| keystrokes
+    public CompiledMachine(Keyboard keyboard, int maxTraceEntries) {
+        super(keyboard);
+        if (maxTraceEntries < 1) {
+            throw new IllegalArgumentException("Trace size must be positive");
+        }
+        this.maxTraceEntries = maxTraceEntries;
+    }
+
+    @Override
+    public void setCode(Code code) {
+        // a reset to the same components and positions keeps its trace
+        boolean same = sameComponents(getCode(), code);
+        super.setCode(code);
+        int[] start = livePositions().clone();
+        if (!same || !Arrays.equals(origin, start)) {
+            this.trace = new int[0];
+        }
+        this.origin = start;
+        this.size = getAlphabetSize();
+        this.maxOffsets = maxTraceEntries / size;
+        returnToOrigin();
+    }
+
+    @Override
+    protected int processIndex(int intermediate) {
+        advance();
+        if (!onTrace) {
+            return transform(intermediate);
+        }
+
+        int index = offset * size + intermediate;
+        if (index >= trace.length) {
+            growTrace(index);
+        }
+        if (++offset == maxOffsets) {
+            onTrace = false;
+        }
+        int result = trace[index];
+        if (result == NOT_COMPILED) {
+            result = transform(intermediate);
+            trace[index] = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void setState(MachineState state) {
+        super.setState(state);
+        returnToOrigin();
+    }
+
+    @Override
+    public void setPackedState(long packed) {
+        super.setPackedState(packed);
+        returnToOrigin();
+    }
+
+    // keystrokes with an allocated trace row
+    public int getCompiledStates() {
+        return size == 0 ? 0 : trace.length / size;
+    }
+
+    // back on the trace only when the rotors are at the code's initial positions
+    private void returnToOrigin() {
+        this.offset = 0;
+        this.onTrace = maxOffsets > 0 && Arrays.equals(livePositions(), origin);
+    }
+
+    // doubles the trace, whole rows at a time and never beyond maxOffsets rows
+    private void growTrace(int index) {
+        int rows = Math.max(trace.length / size * 2, Math.max(INITIAL_TRACE_ENTRIES / size, index / size + 1));
+        rows = Math.min(rows, maxOffsets);
+        int oldLength = trace.length;
+        trace = Arrays.copyOf(trace, rows * size);
+        Arrays.fill(trace, oldLength, trace.length, NOT_COMPILED);
+    }
+
+    private static boolean sameComponents(Code previous, Code next) {
+        if (previous == null || next == null) {
+            return false;
+        }
+        if (previous.getReflector() != next.getReflector() || previous.getPlugboard() != next.getPlugboard()) {
+            return false;
+        }
+        List<Rotor> previousRotors = previous.getRotors();
+        List<Rotor> nextRotors = next.getRotors();
+        if (previousRotors.size() != nextRotors.size()) {
+            return false;
+        }
+        for (int i = 0; i < previousRotors.size(); i++) {
+            if (previousRotors.get(i) != nextRotors.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package mta.patmal.enigma.machine.component.machine;
+
+import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.keyboard.Keyboard;
+
+/**
+ * Machine that, when setCode is given a code whose full keystream fits the memory budget,
+ * precomputes the permutation of every rotor state plus each state's successor. Processing
+ * is then two table loads per character on a packed state counter; rotor positions are only
+ * unpacked from it when something reads them. Codes over budget fall back to MachineImpl.
+ */
+public class KeystreamTableMachine extends MachineImpl {
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+    private static final int OUTPUT_ENTRY_BYTES = Character.BYTES;
+    private static final int SUCCESSOR_ENTRY_BYTES = Integer.BYTES;
+    private static final long MAX_TABLE_ENTRIES = Integer.MAX_VALUE - 8;
+
+    private final long budgetBytes;
+    private char[] outputs;      // [state * size + input]
+    private int[] successors;    // packed state after one keystroke
+    private int size;
+    private int state;
+    private boolean positionsStale;
+
+    public KeystreamTableMachine(Keyboard keyboard, long budgetBytes) {
+        super(keyboard);
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Memory budget cannot be negative");
+        }
+        this.budgetBytes = budgetBytes;
+    }
+
+    // bytes the tables need for this code, or -1 when the state space is too large to tabulate at all
+    public static long estimateBytes(Code code, int alphabetSize) {
+        long states = 1;
+        for (int i = 0; i < code.getRotors().size(); i++) {
+            if (states > MAX_TABLE_ENTRIES / alphabetSize) {
+                return -1;
+            }
+            states *= alphabetSize;
+        }
+        if (states * alphabetSize > MAX_TABLE_ENTRIES) {
+            return -1;
+        }
+        return states * alphabetSize * OUTPUT_ENTRY_BYTES + states * SUCCESSOR_ENTRY_BYTES;
+    }
+
+    public static boolean fits(Code code, int alphabetSize, long budgetBytes) {
+        long bytes = estimateBytes(code, alphabetSize);
+        return bytes >= 0 && bytes <= budgetBytes;
+    }
+
+    public boolean isTableActive() {
+        return outputs != null;
+    }
+
+    @Override
+    public void setCode(Code code) {
+        super.setCode(code);
+        this.outputs = null;
+        this.successors = null;
+        this.positionsStale = false;
+        if (fits(code, getAlphabetSize(), budgetBytes)) {
+            buildTables(getWiring());
+            this.state = (int) super.getPackedState();
+        }
+    }
+
+    @Override
+    protected int processIndex(int intermediate) {
+        if (outputs == null) {
+            return super.processIndex(intermediate);
+        }
+        state = successors[state];
+        positionsStale = true;
+        return outputs[state * size + intermediate];
+    }
+
+    @Override
+    public Code getCode() {
+        syncPositions();
+        return super.getCode();
+    }
+
+    @Override
+    public MachineState getState() {
+        syncPositions();
+        return super.getState();
+    }
+
+    @Override
+    public long getPackedState() {
+        if (outputs != null) {
+            return state;
+        }
+        return super.getPackedState();
+    }
+
+    @Override
+    public void jumpAhead(long characters) {
+        syncPositions();
+        super.jumpAhead(characters);
+    }
+
+    @Override
+    public void setState(MachineState machineState) {
+        super.setState(machineState);
+        syncState();
+    }
+
+    @Override
+    public void setPackedState(long packed) {
+        super.setPackedState(packed);
+        syncState();
+    }
+
+    // the packed state follows newly set positions
+    private void syncState() {
+        positionsStale = false;
+        if (outputs != null) {
+            state = (int) super.getPackedState();
+        }
+    }
+
+    // the positions follow the packed state, unpacked only when they are read
+    private void syncPositions() {
+        if (positionsStale) {
+            positionsStale = false;
+            super.setPackedState(state);
+        }
+    }
+
+    private void buildTables(MachineWiring wiring) {
+        this.size = wiring.getAlphabetSize();
+        int states = (int) wiring.getStateCount();
+        char[] outputs = new char[states * size];
+        int[] successors = new int[states];
+
+        MachineState machineState = wiring.newState();
+        for (int packed = 0; packed < states; packed++) {
+            wiring.unpack(packed, machineState);
+            int row = packed * size;
+            for (int input = 0; input < size; input++) {
+                outputs[row + input] = (char) wiring.transform(machineState.positions, input);
+            }
+            wiring.advance(machineState.positions);
+            successors[packed] = (int) wiring.pack(machineState);
+        }
+
+        this.outputs = outputs;
+        this.successors = successors;
+    }
+}
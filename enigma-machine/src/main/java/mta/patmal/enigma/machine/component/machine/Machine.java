@@ -2,8 +2,16 @@ package mta.patmal.enigma.machine.component.machine;
 
 import mta.patmal.enigma.machine.component.code.Code;
 
+import java.nio.CharBuffer;
+
 public interface Machine {
     void setCode(Code code);
     char process(char input);
+    void process(char[] src, int srcOff, char[] dst, int dstOff, int len);
+    void process(CharBuffer src, CharBuffer dst);
+    int processWhileValid(char[] src, int srcOff, char[] dst, int dstOff, int len);
+    void processIndices(int[] src, int srcOff, int[] dst, int dstOff, int len);
+    void processIndices(byte[] src, int srcOff, byte[] dst, int dstOff, int len);
     Code getCode();
+    void jumpAhead(long characters);
 }
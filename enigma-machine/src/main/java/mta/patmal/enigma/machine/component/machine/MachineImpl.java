@@ -2,17 +2,50 @@ package mta.patmal.enigma.machine.component.machine;
 
 import mta.patmal.enigma.machine.component.code.Code;
 import mta.patmal.enigma.machine.component.keyboard.Keyboard;
-import mta.patmal.enigma.machine.component.rotor.Direction;
 import mta.patmal.enigma.machine.component.rotor.Rotor;
 
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class MachineImpl implements Machine{
+    private static final int MIN_PARALLEL_CHUNK = 1 << 14;
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int MAX_BYTE_ALPHABET_SIZE = 256;
+
     private Code code;
     private final Keyboard keyboard;
 
+    // the whole plugboard -> rotors -> reflector path runs through the wiring, as it does for sessions
+    private Rotor[] rotors;
+    private MachineWiring wiring;
+
+    // rotor positions live in the state, stepped by the wiring; the Rotor objects are brought up to date on getCode()
+    private MachineState state;
+    private boolean rotorsStale;
+
+    // folded mode: rotors 2..n + reflector only change on a carry out of the rightmost rotor,
+    // so their combined permutation is cached and filled lazily until the next carry; a carry
+    // comes every |ABC| keystrokes, which bounds the gain, see MachineMode.FOLDED
+    private final boolean foldInnerRotors;
+    private int[] innerPermutation;
+    private int[] innerStamps;
+    private int innerGeneration;
+
     public MachineImpl(Keyboard keyboard) {
+        this(keyboard, false);
+    }
+
+    public MachineImpl(Keyboard keyboard, boolean foldInnerRotors) {
         this.keyboard = keyboard;
+        this.foldInnerRotors = foldInnerRotors;
     }
     @Override
     public void setCode(Code code) {
@@ -23,6 +56,20 @@ public class MachineImpl implements Machine{
         for (int i = 0; i < rotors.size(); i++) {
             rotors.get(i).setPosition(positions.get(i));
         }
+
+        this.rotors = rotors.toArray(new Rotor[0]);
+        this.wiring = new MachineWiring(keyboard, code);
+
+        this.state = wiring.newState();
+        this.rotorsStale = false;
+
+        if (foldInnerRotors) {
+            int size = keyboard.getAlphabetSize();
+            this.innerPermutation = new int[size];
+            this.innerStamps = new int[size];
+            this.innerGeneration = 0;
+            invalidateInnerPermutation();
+        }
     }
 
     @Override
@@ -30,36 +77,242 @@ public class MachineImpl implements Machine{
 
         int intermediate = keyboard.processChar(input);
 
-        // plugboard in
-        intermediate = code.getPlugboard().process(intermediate);
+        intermediate = processIndex(intermediate);
 
-        List<Rotor> rotors = code.getRotors();
+        char result = keyboard.lightALamp(intermediate);
 
-        // advance
-        advance(rotors);
+        return result;
+    }
 
-        // forward through rotors
-        intermediate = forwardTransform(rotors, intermediate);
+    // src and dst may be the same array, processing in place
+    @Override
+    public void process(char[] src, int srcOff, char[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        Keyboard keyboard = this.keyboard;
+        for (int i = 0; i < len; i++) {
+            int intermediate = keyboard.processChar(src[srcOff + i]);
+            dst[dstOff + i] = keyboard.lightALamp(processIndex(intermediate));
+        }
+    }
 
-        // reflector
-        intermediate = code.getReflector().process(intermediate);
+    // like process, but stops before the first character outside the alphabet; returns how many were processed
+    @Override
+    public int processWhileValid(char[] src, int srcOff, char[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        Keyboard keyboard = this.keyboard;
+        for (int i = 0; i < len; i++) {
+            int intermediate = keyboard.indexOf(src[srcOff + i]);
+            if (intermediate == -1) {
+                return i;
+            }
+            dst[dstOff + i] = keyboard.lightALamp(processIndex(intermediate));
+        }
+        return len;
+    }
 
-        // backward through rotors
-        intermediate = backwardTransform(rotors, intermediate);
+    // processes all remaining characters of src into dst
+    @Override
+    public void process(CharBuffer src, CharBuffer dst) {
+        int len = src.remaining();
+        if (dst.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            process(src.array(), src.arrayOffset() + src.position(), dst.array(), dst.arrayOffset() + dst.position(), len);
+            src.position(src.position() + len);
+            dst.position(dst.position() + len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            int intermediate = keyboard.processChar(src.get());
+            dst.put(keyboard.lightALamp(processIndex(intermediate)));
+        }
+    }
 
-        // plugboard out
-        intermediate = code.getPlugboard().process(intermediate);
+    // alphabet indices in and out, skipping the keyboard entirely
+    @Override
+    public void processIndices(int[] src, int srcOff, int[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        int size = keyboard.getAlphabetSize();
+        for (int i = 0; i < len; i++) {
+            int index = src[srcOff + i];
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("Input index out of bounds: " + index);
+            }
+            dst[dstOff + i] = processIndex(index);
+        }
+    }
 
-        char result = keyboard.lightALamp(intermediate);
+    // unsigned byte indices, for alphabets of up to 256 symbols
+    @Override
+    public void processIndices(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        int size = keyboard.getAlphabetSize();
+        if (size > MAX_BYTE_ALPHABET_SIZE) {
+            throw new IllegalStateException("Alphabet of " + size + " symbols does not fit in byte indices");
+        }
+        for (int i = 0; i < len; i++) {
+            int index = src[srcOff + i] & 0xFF;
+            if (index >= size) {
+                throw new IllegalArgumentException("Input index out of bounds: " + index);
+            }
+            dst[dstOff + i] = (byte) processIndex(index);
+        }
+    }
 
-        return result;
+    // steps the rotors and runs one keyboard index through the machine
+    protected int processIndex(int intermediate) {
+
+        // advance
+        boolean innerMoved = advance();
+
+        if (foldInnerRotors && rotors.length > 1) {
+            if (innerMoved) {
+                invalidateInnerPermutation();
+            }
+            // plugboard and rightmost rotor -> cached inner permutation -> rightmost rotor and plugboard
+            int position = state.positions[0];
+            return wiring.exit(position, foldedInner(wiring.entry(position, intermediate)));
+        }
+
+        return transform(intermediate);
+    }
+
+    // full plugboard -> rotors -> reflector -> rotors -> plugboard path at the current rotor positions
+    protected int transform(int intermediate) {
+        return wiring.transform(state.positions, intermediate);
     }
 
     @Override
     public Code getCode() {
+        if (rotorsStale) {
+            int[] positions = state.positions;
+            for (int i = 0; i < rotors.length; i++) {
+                rotors[i].setPosition(positions[i]);
+            }
+            rotorsStale = false;
+        }
         return code;
     }
 
+    // positions the rotors as if the given number of characters had been processed
+    @Override
+    public void jumpAhead(long characters) {
+        MachineState state = getState();
+        wiring.jumpAhead(state, characters);
+        setState(state);
+    }
+
+    // immutable wiring of the current code, shareable between threads
+    public MachineWiring getWiring() {
+        if (code == null) {
+            throw new IllegalStateException("No code configured");
+        }
+        return wiring;
+    }
+
+    // snapshot of the current rotor positions
+    public MachineState getState() {
+        if (code == null) {
+            throw new IllegalStateException("No code configured");
+        }
+        return new MachineState(currentPositions());
+    }
+
+    public void setState(MachineState state) {
+        if (code == null) {
+            throw new IllegalStateException("No code configured");
+        }
+        if (state.getRotorCount() != rotors.length) {
+            throw new IllegalArgumentException("State has " + state.getRotorCount()
+                    + " rotor positions, machine has " + rotors.length + " rotors");
+        }
+        applyPositions(state.positions);
+    }
+
+    // packed snapshot of the current rotor positions, see MachineWiring.isPackable
+    public long getPackedState() {
+        return getWiring().pack(state.positions);
+    }
+
+    public void setPackedState(long packed) {
+        getWiring().unpack(packed, state.positions);
+        rotorsStale = true;
+        if (foldInnerRotors) {
+            invalidateInnerPermutation();
+        }
+    }
+
+    /**
+     * Splits the input into chunks, derives each chunk's starting rotor state with jumpAhead
+     * and processes the chunks on the pool. The machine ends in the same state as after
+     * sequential processing.
+     */
+    public char[] processParallel(char[] input, ForkJoinPool pool) {
+        MachineWiring wiring = getWiring();
+        MachineState start = getState();
+        char[] output = new char[input.length];
+
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK, input.length / (pool.getParallelism() * CHUNKS_PER_WORKER) + 1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < input.length; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkLength = Math.min(input.length - from, chunkSize);
+            tasks.add(() -> {
+                MachineState state = start.copy();
+                wiring.jumpAhead(state, chunkFrom);
+                wiring.process(state, input, chunkFrom, output, chunkFrom, chunkLength);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel processing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Parallel processing failed", e.getCause());
+        }
+
+        wiring.jumpAhead(start, input.length);
+        setState(start);
+        return output;
+    }
+
+    private int[] currentPositions() {
+        return state.positions.clone();
+    }
+
+    // live rotor positions, rightmost first; callers must not modify them
+    protected final int[] livePositions() {
+        return state.positions;
+    }
+
+    private void applyPositions(int[] positions) {
+        int size = keyboard.getAlphabetSize();
+        for (int i = 0; i < positions.length; i++) {
+            state.positions[i] = Math.floorMod(positions[i], size);
+        }
+        rotorsStale = true;
+        if (foldInnerRotors) {
+            invalidateInnerPermutation();
+        }
+    }
+
+    public Keyboard getKeyboard() {
+        return keyboard;
+    }
+
     public char indexToChar(int index) {
         return keyboard.lightALamp(index);
     }
@@ -68,27 +321,28 @@ public class MachineImpl implements Machine{
         return keyboard.getAlphabetSize();
     }
 
-    private int backwardTransform(List<Rotor> rotors, int intermediate) {
-        for (int i = rotors.size()-1; i >= 0; i--) {
-            intermediate = rotors.get(i).process(intermediate, Direction.BACKWARD);
-        }
-        return intermediate;
+    // returns true when the step carried past the rightmost rotor
+    protected boolean advance() {
+        rotorsStale = true;
+        return wiring.advance(state.positions);
     }
 
-    private int forwardTransform(List<Rotor> rotors, int intermediate) {
-        for (int i = 0; i < rotors.size(); i++) {
-            intermediate = rotors.get(i).process(intermediate, Direction.FORWARD);
+    private int foldedInner(int input) {
+        if (innerStamps[input] == innerGeneration) {
+            return innerPermutation[input];
         }
+        int intermediate = wiring.inner(state.positions, input);
+        innerPermutation[input] = intermediate;
+        innerStamps[input] = innerGeneration;
         return intermediate;
     }
 
-    private void advance(List<Rotor> rotors) {
-        int rotorIndex = 0;
-        boolean shouldAdvance = false;
-        do {
-            shouldAdvance = rotors.get(rotorIndex).advance();
-            rotorIndex++;
-        } while(shouldAdvance && rotorIndex < rotors.size());
+    private void invalidateInnerPermutation() {
+        innerGeneration++;
+        if (innerGeneration == 0) {
+            Arrays.fill(innerStamps, 0);
+            innerGeneration = 1;
+        }
     }
 
 
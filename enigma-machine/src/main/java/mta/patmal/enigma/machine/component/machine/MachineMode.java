@@ -0,0 +1,17 @@
+package mta.patmal.enigma.machine.component.machine;
+
+/**
+ * Which Machine implementation a loader builds for a character alphabet.
+ */
+public enum MachineMode {
+    // MachineImpl, every character through every rotor
+    STANDARD,
+    // MachineImpl with rotors 2..n + reflector cached as one permutation between carries. The cache
+    // lives only |ABC| keystrokes, so it is filled about as often as it is reused: roughly 1.1x
+    // (5 rotors) to 1.4x (8 rotors) over STANDARD, and slower than STANDARD with precomputed rotors
+    FOLDED,
+    // KeystreamTableMachine with the loader's budget, falling back to MachineImpl for codes over it
+    KEYSTREAM_TABLE,
+    // CompiledMachine, compiling the keystream from the code's initial state for resends after a reset
+    COMPILED
+}
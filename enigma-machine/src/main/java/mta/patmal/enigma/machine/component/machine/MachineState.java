@@ -0,0 +1,41 @@
+package mta.patmal.enigma.machine.component.machine;
+
+/**
+ * Per-session rotor positions (rightmost rotor first), used with a shared MachineWiring.
+ * A state is cheap to create and is not meant to be shared between threads.
+ */
+public final class MachineState {
+    final int[] positions;
+
+    public MachineState(int[] positions) {
+        if (positions == null || positions.length == 0) {
+            throw new IllegalArgumentException("Positions cannot be null or empty");
+        }
+        this.positions = positions.clone();
+    }
+
+    public int getRotorCount() {
+        return positions.length;
+    }
+
+    public int getPosition(int rotorIndex) {
+        return positions[rotorIndex];
+    }
+
+    public int[] getPositions() {
+        return positions.clone();
+    }
+
+    public MachineState copy() {
+        return new MachineState(positions);
+    }
+
+    // restores this state from another one of the same machine, without allocating
+    public void copyFrom(MachineState other) {
+        if (other.positions.length != positions.length) {
+            throw new IllegalArgumentException("Cannot copy a state of " + other.positions.length
+                    + " rotors into a state of " + positions.length + " rotors");
+        }
+        System.arraycopy(other.positions, 0, positions, 0, positions.length);
+    }
+}
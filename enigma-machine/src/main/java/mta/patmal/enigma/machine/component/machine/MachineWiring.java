@@ -0,0 +1,238 @@
+package mta.patmal.enigma.machine.component.machine;
+
+import mta.patmal.enigma.machine.component.code.Code;
+import mta.patmal.enigma.machine.component.keyboard.Keyboard;
+import mta.patmal.enigma.machine.component.plugboard.Plugboard;
+import mta.patmal.enigma.machine.component.reflector.Reflector;
+import mta.patmal.enigma.machine.component.rotor.Direction;
+import mta.patmal.enigma.machine.component.rotor.Rotor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable keyboard, rotor, reflector and plugboard wiring of a configured code. Rotors are
+ * only used through their stateless process(input, direction, position), so any number of
+ * threads can process against one wiring, each with its own MachineState.
+ */
+public final class MachineWiring {
+    private final Keyboard keyboard;
+    private final Rotor[] rotors;
+    private final int[] notches;
+    private final int[] initialPositions;
+    private final Plugboard plugboard;
+    private final Reflector reflector;
+    private final int size;
+    private final long stateCount;
+
+    public MachineWiring(Keyboard keyboard, Code code) {
+        if (keyboard == null || code == null) {
+            throw new IllegalArgumentException("Keyboard and code cannot be null");
+        }
+        this.keyboard = keyboard;
+        this.size = keyboard.getAlphabetSize();
+        List<Rotor> rotorList = code.getRotors();
+        this.rotors = rotorList.toArray(new Rotor[0]);
+        this.notches = new int[rotors.length];
+        this.initialPositions = new int[rotors.length];
+        for (int i = 0; i < rotors.length; i++) {
+            notches[i] = rotors[i].getNotch();
+            initialPositions[i] = Math.floorMod(code.getPositions().get(i), size);
+        }
+        this.plugboard = code.getPlugboard();
+        this.reflector = code.getReflector();
+        this.stateCount = countStates(size, rotors.length);
+    }
+
+    // |ABC|^rotors, or -1 when that does not fit in a long
+    private static long countStates(int size, int rotorCount) {
+        long count = 1;
+        for (int i = 0; i < rotorCount; i++) {
+            if (count > Long.MAX_VALUE / size) {
+                return -1;
+            }
+            count *= size;
+        }
+        return count;
+    }
+
+    // a fresh state at the code's initial positions
+    public MachineState newState() {
+        return new MachineState(initialPositions);
+    }
+
+    public Keyboard getKeyboard() {
+        return keyboard;
+    }
+
+    public int getAlphabetSize() {
+        return size;
+    }
+
+    public int getRotorCount() {
+        return rotors.length;
+    }
+
+    public int getNotch(int rotorIndex) {
+        return notches[rotorIndex];
+    }
+
+    public int getRotorId(int rotorIndex) {
+        return rotors[rotorIndex].getId();
+    }
+
+    public Reflector getReflector() {
+        return reflector;
+    }
+
+    public Plugboard getPlugboard() {
+        return plugboard;
+    }
+
+    // whether every state of this machine packs into a single long (|ABC|^rotors fits)
+    public boolean isPackable() {
+        return stateCount > 0;
+    }
+
+    public long getStateCount() {
+        checkPackable();
+        return stateCount;
+    }
+
+    // mixed-radix encoding, rightmost rotor as the least significant digit
+    public long pack(MachineState state) {
+        checkState(state);
+        return pack(state.positions);
+    }
+
+    long pack(int[] positions) {
+        checkPackable();
+        long packed = 0;
+        for (int i = rotors.length - 1; i >= 0; i--) {
+            packed = packed * size + positions[i];
+        }
+        return packed;
+    }
+
+    public MachineState unpack(long packed) {
+        MachineState state = newState();
+        unpack(packed, state);
+        return state;
+    }
+
+    public void unpack(long packed, MachineState into) {
+        checkState(into);
+        unpack(packed, into.positions);
+    }
+
+    void unpack(long packed, int[] positions) {
+        checkPacked(packed);
+        for (int i = 0; i < rotors.length; i++) {
+            positions[i] = (int) (packed % size);
+            packed /= size;
+        }
+    }
+
+    void checkPacked(long packed) {
+        checkPackable();
+        if (packed < 0 || packed >= stateCount) {
+            throw new IllegalArgumentException("Packed state out of range for this machine: " + packed);
+        }
+    }
+
+    public char process(MachineState state, char input) {
+        checkState(state);
+        return keyboard.lightALamp(step(state.positions, keyboard.processChar(input)));
+    }
+
+    public void process(MachineState state, char[] src, int srcOff, char[] dst, int dstOff, int len) {
+        checkState(state);
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        int[] positions = state.positions;
+        for (int i = 0; i < len; i++) {
+            int intermediate = keyboard.processChar(src[srcOff + i]);
+            dst[dstOff + i] = keyboard.lightALamp(step(positions, intermediate));
+        }
+    }
+
+    // like process, but stops before the first character outside the alphabet; returns how many were processed
+    public int processWhileValid(MachineState state, char[] src, int srcOff, char[] dst, int dstOff, int len) {
+        checkState(state);
+        Objects.checkFromIndexSize(srcOff, len, src.length);
+        Objects.checkFromIndexSize(dstOff, len, dst.length);
+        int[] positions = state.positions;
+        for (int i = 0; i < len; i++) {
+            int intermediate = keyboard.indexOf(src[srcOff + i]);
+            if (intermediate == -1) {
+                return i;
+            }
+            dst[dstOff + i] = keyboard.lightALamp(step(positions, intermediate));
+        }
+        return len;
+    }
+
+    public int processIndex(MachineState state, int index) {
+        checkState(state);
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Input index out of bounds: " + index);
+        }
+        return step(state.positions, index);
+    }
+
+    public void jumpAhead(MachineState state, long characters) {
+        checkState(state);
+        RotorStepping.jumpAhead(state.positions, notches, size, characters);
+    }
+
+    // full path at explicit positions, without stepping
+    public int transform(int[] positions, int intermediate) {
+        int position = positions[0];
+        return exit(position, inner(positions, entry(position, intermediate)));
+    }
+
+    // plugboard in, then the rightmost rotor forward
+    int entry(int position, int intermediate) {
+        return rotors[0].process(plugboard.process(intermediate), Direction.FORWARD, position);
+    }
+
+    // rotors 2..n forward, reflector, rotors n..2 backward: the part only a carry changes
+    int inner(int[] positions, int intermediate) {
+        for (int i = 1; i < rotors.length; i++) {
+            intermediate = rotors[i].process(intermediate, Direction.FORWARD, positions[i]);
+        }
+        intermediate = reflector.process(intermediate);
+        for (int i = rotors.length - 1; i >= 1; i--) {
+            intermediate = rotors[i].process(intermediate, Direction.BACKWARD, positions[i]);
+        }
+        return intermediate;
+    }
+
+    // the rightmost rotor backward, then plugboard out
+    int exit(int position, int intermediate) {
+        return plugboard.process(rotors[0].process(intermediate, Direction.BACKWARD, position));
+    }
+
+    // one keystroke of stepping; returns true when it carried past the rightmost rotor
+    boolean advance(int[] positions) {
+        return RotorStepping.step(positions, notches, size) > 1;
+    }
+
+    private int step(int[] positions, int intermediate) {
+        advance(positions);
+        return transform(positions, intermediate);
+    }
+
+    private void checkPackable() {
+        if (stateCount < 0) {
+            throw new IllegalStateException(size + "^" + rotors.length + " rotor states do not fit in a long");
+        }
+    }
+
+    private void checkState(MachineState state) {
+        if (state.positions.length != rotors.length) {
+            throw new IllegalArgumentException("State has " + state.positions.length
+                    + " rotor positions, machine has " + rotors.length + " rotors");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package mta.patmal.enigma.machine.component.machine;
+
+/**
+ * Odometer arithmetic over rotor positions, matching RotorImpl.advance: the rightmost rotor
+ * steps on every character and a rotor carries into its left neighbour when it steps onto its notch.
+ * Every machine steps through here, so they all share one carry rule.
+ */
+public final class RotorStepping {
+
+    private RotorStepping() {
+    }
+
+    /**
+     * One keystroke; returns how many rotors stepped, so anything above 1 is a carry out of
+     * the rightmost rotor. Without a carry this is one increment and one compare.
+     */
+    public static int step(int[] positions, int[] notches, int size) {
+        int position = positions[0] + 1;
+        if (position == size) {
+            position = 0;
+        }
+        positions[0] = position;
+        if (position != notches[0]) {
+            return 1;
+        }
+        int rotorIndex = 1;
+        while (rotorIndex < positions.length) {
+            position = positions[rotorIndex] + 1;
+            if (position == size) {
+                position = 0;
+            }
+            positions[rotorIndex] = position;
+            if (position != notches[rotorIndex++]) {
+                break;
+            }
+        }
+        return rotorIndex;
+    }
+
+    // moves positions (rightmost first) to where they would be after the given number of characters
+    public static void jumpAhead(int[] positions, int[] notches, int size, long characters) {
+        if (characters < 0) {
+            throw new IllegalArgumentException("Cannot jump back: " + characters);
+        }
+        long steps = characters;
+        for (int i = 0; i < positions.length && steps > 0; i++) {
+            int position = positions[i];
+            positions[i] = (int) ((position + steps % size) % size);
+            steps = carries(position, notches[i], size, steps);
+        }
+    }
+
+    // number of times a rotor at the given position steps onto its notch within the given number of steps
+    public static long carries(int position, int notch, int size, long steps) {
+        int untilNotch = Math.floorMod(notch - position, size);
+        if (untilNotch == 0) {
+            untilNotch = size;
+        }
+        return (steps < untilNotch) ? 0 : 1 + (steps - untilNotch) / size;
+    }
+}
@@ -6,38 +6,53 @@ import java.util.Collections;
 
 public class PlugboardImpl implements Plugboard {
     private final Map<Integer, Integer> wiring;
+    private final int[] table;
 
-    public PlugboardImpl(Map<Integer, Integer> wiring) {
+    public PlugboardImpl(Map<Integer, Integer> wiring, int alphabetSize) {
         if (wiring == null) {
             throw new IllegalArgumentException("Plugboard wiring cannot be null");
         }
+        validateSymmetricNoSelf(wiring, alphabetSize);
         // defensive copy + make immutable
         this.wiring = Collections.unmodifiableMap(new HashMap<>(wiring));
+
+        // identity for unplugged letters
+        this.table = new int[alphabetSize];
+        for (int i = 0; i < alphabetSize; i++) {
+            table[i] = i;
+        }
+        for (Map.Entry<Integer, Integer> e : wiring.entrySet()) {
+            table[e.getKey()] = e.getValue();
+        }
     }
 
     @Override
     public int process(int input) {
-        return wiring.getOrDefault(input,input);
+        return table[input];
     }
 
     @Override
     public Map<Integer, Integer> getWiring() {
         return wiring;
     }
-//
-//    private void validateSymmetricNoSelf(Map<Integer, Integer> wiring) {
-//        for (Map.Entry<Integer, Integer> e : wiring.entrySet()) {
-//            int a = e.getKey();
-//            int b = e.getValue();
-//
-//            if (a == b) {
-//                throw new IllegalArgumentException("Plugboard cannot map an index to itself: " + a);
-//            }
-//
-//            Integer back = wiring.get(b);
-//            if (back == null || back != a) {
-//                throw new IllegalArgumentException("Plugboard wiring must be symmetric: " + a + "<->" + b);
-//            }
-//        }
-//    }
+
+    private void validateSymmetricNoSelf(Map<Integer, Integer> wiring, int alphabetSize) {
+        for (Map.Entry<Integer, Integer> e : wiring.entrySet()) {
+            int a = e.getKey();
+            int b = e.getValue();
+
+            if (a < 0 || a >= alphabetSize || b < 0 || b >= alphabetSize) {
+                throw new IllegalArgumentException("Plugboard index out of range: " + a + "<->" + b);
+            }
+
+            if (a == b) {
+                throw new IllegalArgumentException("Plugboard cannot map an index to itself: " + a);
+            }
+
+            Integer back = wiring.get(b);
+            if (back == null || back != a) {
+                throw new IllegalArgumentException("Plugboard wiring must be symmetric: " + a + "<->" + b);
+            }
+        }
+    }
 }
@@ -2,7 +2,7 @@ package mta.patmal.enigma.machine.component.reflector;
 import java.util.Map;
 
 public class ReflectorImpl implements Reflector {
-    private final Map<Integer, Integer> wiring;
+    private final int[] table;
     private final int id;
 
     public ReflectorImpl(int id, Map<Integer, Integer> wiring) {
@@ -10,16 +10,34 @@ public class ReflectorImpl implements Reflector {
             throw new IllegalArgumentException("Wiring cannot be null or empty");
         }
         this.id = id;
-        this.wiring = wiring;
+        this.table = buildTable(wiring);
+    }
+
+    // the wiring must pair up every index 0..n-1, with no index reflected to itself
+    private int[] buildTable(Map<Integer, Integer> wiring) {
+        int size = wiring.size();
+        int[] table = new int[size];
+        for (Map.Entry<Integer, Integer> e : wiring.entrySet()) {
+            int input = e.getKey();
+            int output = e.getValue();
+            if (input < 0 || input >= size || output < 0 || output >= size) {
+                throw new IllegalArgumentException("Reflector " + id + " must map every index 0.." + (size - 1)
+                        + ", got: " + input + "->" + output);
+            }
+            if (input == output) {
+                throw new IllegalArgumentException("Reflector " + id + " cannot map an index to itself: " + input);
+            }
+            if (!Integer.valueOf(input).equals(wiring.get(output))) {
+                throw new IllegalArgumentException("Reflector " + id + " wiring must be symmetric: " + input + "<->" + output);
+            }
+            table[input] = output;
+        }
+        return table;
     }
 
     @Override
     public int process(int input){
-        Integer output = wiring.get(input);
-        if (output == null) {
-            throw new IllegalArgumentException("Invalid input for reflector" + input);
-        }
-        return output;
+        return table[input];
     }
 
     @Override
@@ -0,0 +1,71 @@
+package mta.patmal.enigma.machine.component.rotor;
+
+/**
+ * Rotor that precomputes the shifted wiring for every position, so a pass is a single
+ * table load. Tables take size * size ints per direction, hence the alphabet size limit.
+ */
+public class PrecomputedRotorImpl extends RotorImpl {
+    public static final int MAX_ALPHABET_SIZE = 128;
+
+    private final int size;
+    private final int[] forwardTable;
+    private final int[] backwardTable;
+    private int rowOffset;
+
+    public PrecomputedRotorImpl(
+            int id,
+            final int[] forwardWiring,
+            final int[] backwardWiring,
+            int position,
+            final int notch,
+            int ringSetting
+    ) {
+        super(id, forwardWiring, backwardWiring, position, notch, ringSetting);
+        this.size = forwardWiring.length;
+        if (size > MAX_ALPHABET_SIZE) {
+            throw new IllegalArgumentException("Alphabet too large for precomputed rotor: " + size
+                    + " (max " + MAX_ALPHABET_SIZE + ")");
+        }
+        this.forwardTable = buildTable(forwardWiring, ringSetting);
+        this.backwardTable = buildTable(backwardWiring, ringSetting);
+        this.rowOffset = Math.floorMod(position, size) * size;
+    }
+
+    private int[] buildTable(int[] wiring, int ringSetting) {
+        int[] table = new int[size * size];
+        for (int position = 0; position < size; position++) {
+            int shift = Math.floorMod(position - ringSetting, size);
+            int row = position * size;
+            for (int input = 0; input < size; input++) {
+                int contact = (input + shift) % size;
+                table[row + input] = Math.floorMod(wiring[contact] - shift, size);
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public int process(int input, Direction direction) {
+        int[] table = (direction == Direction.FORWARD) ? forwardTable : backwardTable;
+        return table[rowOffset + input];
+    }
+
+    @Override
+    public int process(int input, Direction direction, int position) {
+        int[] table = (direction == Direction.FORWARD) ? forwardTable : backwardTable;
+        return table[position * size + input];
+    }
+
+    @Override
+    public boolean advance() {
+        boolean carry = super.advance();
+        rowOffset = getPosition() * size;
+        return carry;
+    }
+
+    @Override
+    public void setPosition(int position) {
+        super.setPosition(position);
+        rowOffset = getPosition() * size;
+    }
+}
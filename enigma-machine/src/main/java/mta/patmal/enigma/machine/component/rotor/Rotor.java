@@ -2,6 +2,7 @@ package mta.patmal.enigma.machine.component.rotor;
 
 public interface Rotor {
     int process(int input, Direction direction);
+    int process(int input, Direction direction, int position);
     boolean advance();
     int getPosition();
     void setPosition(int position);
@@ -1,26 +1,32 @@
 package mta.patmal.enigma.machine.component.rotor;
 
-import java.util.Map;
-
 public class RotorImpl implements Rotor {
     private final int id;
-    private final Map<Integer, Integer> forwardWiring;
-    private final Map<Integer, Integer> backwardWiring;
+    private final int[] forwardWiring;
+    private final int[] backwardWiring;
+    private final int size;
     private int position;
     private final int notch;
     private final int ringSetting;
 
     public RotorImpl(
             int id,
-            final Map<Integer, Integer> forwardWiring,
-            final Map<Integer, Integer> backwardWiring,
+            final int[] forwardWiring,
+            final int[] backwardWiring,
             int position,
             final int notch,
             int ringSetting
     ) {
+        if (forwardWiring == null || backwardWiring == null || forwardWiring.length == 0) {
+            throw new IllegalArgumentException("Rotor wiring cannot be null or empty");
+        }
+        if (forwardWiring.length != backwardWiring.length) {
+            throw new IllegalArgumentException("Forward and backward wiring must have same size");
+        }
         this.id = id;
         this.forwardWiring = forwardWiring;
         this.backwardWiring = backwardWiring;
+        this.size = forwardWiring.length;
         this.position = position;
         this.notch = notch;
         this.ringSetting = ringSetting;
@@ -28,21 +34,24 @@ public class RotorImpl implements Rotor {
 
     @Override
     public int process(int input, Direction direction) {
-        Map<Integer, Integer> wiring = (direction == Direction.FORWARD) ? forwardWiring : backwardWiring;
-        return processWithWiring(input, wiring);
+        return process(input, direction, position);
+    }
+
+    // stateless pass at an explicit position; the rotor's own position is not touched
+    @Override
+    public int process(int input, Direction direction, int position) {
+        int[] wiring = (direction == Direction.FORWARD) ? forwardWiring : backwardWiring;
+        return processWithWiring(input, wiring, position);
     }
 
-    private int processWithWiring(int input, Map<Integer, Integer> wiring) {
-        int size = wiring.size();
+    private int processWithWiring(int input, int[] wiring, int position) {
         int shift = (position - ringSetting + size) % size;
         int contact = (input + shift) % size;
-        int result = (wiring.get(contact) - shift + size) % size;
-        return result >= 0 ? result : result + size;
+        return (wiring[contact] - shift + size) % size;
     }
 
     @Override
     public boolean advance() {
-        int size = forwardWiring.size();
         position = (position + 1) % size;
         return position == notch;   // עכשיו בודק אחרי הפסיעה
     }
@@ -53,7 +62,6 @@ public class RotorImpl implements Rotor {
     }
     @Override
     public void setPosition(int position) {
-        int size = forwardWiring.size();
         this.position = Math.floorMod(position, size);
     }
 
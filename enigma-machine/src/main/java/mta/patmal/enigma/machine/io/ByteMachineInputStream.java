@@ -0,0 +1,67 @@
+package mta.patmal.enigma.machine.io;
+
+import mta.patmal.enigma.machine.component.machine.ByteMachine;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream that runs everything read from the underlying stream through a byte-mode
+ * machine, in the style of CipherInputStream. Skipped bytes advance the machine with jumpAhead.
+ */
+public class ByteMachineInputStream extends FilterInputStream {
+    private final ByteMachine machine;
+    private final byte[] single = new byte[1];
+
+    public ByteMachineInputStream(InputStream in, ByteMachine machine) {
+        super(in);
+        if (machine == null) {
+            throw new IllegalArgumentException("Machine cannot be null");
+        }
+        this.machine = machine;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            return -1;
+        }
+        single[0] = (byte) b;
+        machine.process(single, 0, single, 0, 1);
+        return single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            machine.process(b, off, b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0) {
+            machine.jumpAhead(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+}
@@ -0,0 +1,74 @@
+package mta.patmal.enigma.machine.io;
+
+import mta.patmal.enigma.machine.component.machine.Machine;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader that runs everything read from the underlying reader through a machine, in the
+ * style of CipherInputStream. The machine keeps stepping across reads; skipped characters
+ * advance it with jumpAhead, so the keystream stays aligned with the source.
+ */
+public class MachineReader extends FilterReader {
+    private final Machine machine;
+
+    public MachineReader(Reader in, Machine machine) {
+        super(in);
+        if (machine == null) {
+            throw new IllegalArgumentException("Machine cannot be null");
+        }
+        this.machine = machine;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return -1;
+        }
+        try {
+            return machine.process((char) c);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int n = in.read(cbuf, off, len);
+        if (n > 0) {
+            try {
+                machine.process(cbuf, off, cbuf, off, n);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0) {
+            machine.jumpAhead(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+}
@@ -0,0 +1,174 @@
+package mta.patmal.enigma.bench;
+
+import mta.patmal.enigma.machine.component.code.CodeImpl;
+import mta.patmal.enigma.machine.component.keyboard.KeyboardImpl;
+import mta.patmal.enigma.machine.component.machine.MachineImpl;
+import mta.patmal.enigma.machine.component.machine.RotorStepping;
+import mta.patmal.enigma.machine.component.plugboard.PlugboardImpl;
+import mta.patmal.enigma.machine.component.reflector.ReflectorImpl;
+import mta.patmal.enigma.machine.component.rotor.PrecomputedRotorImpl;
+import mta.patmal.enigma.machine.component.rotor.Rotor;
+import mta.patmal.enigma.machine.component.rotor.RotorImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Stepping and bulk processing with 3, 8 and 20 rotors over a 26-letter ABC, on seeded
+ * random wiring so runs are comparable. Stepping compares the per-rotor Rotor.advance chain
+ * with RotorStepping; processing runs MachineImpl with plain and precomputed rotors. Every
+ * variant is warmed up before any is measured, so no row pays for JIT compilation.
+ * Kept with the test sources so it never ships in the machine jar.
+ *
+ * Usage: mvn -pl enigma-machine test-compile, then
+ * java -cp enigma-machine/target/classes:enigma-machine/target/test-classes mta.patmal.enigma.bench.RotorCountBenchmark [characters]
+ */
+public final class RotorCountBenchmark {
+    private static final String ABC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int[] ROTOR_COUNTS = {3, 8, 20};
+    private static final int DEFAULT_CHARACTERS = 2_000_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final long SEED = 13;
+
+    private static long sink;
+
+    private RotorCountBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int characters = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_CHARACTERS;
+        char[] input = randomText(characters, new SplittableRandom(SEED));
+        char[] output = new char[characters];
+
+        // [rotor count][variant]: advance chain, RotorStepping, plain process, precomputed process
+        Runnable[][] variants = new Runnable[ROTOR_COUNTS.length][];
+        for (int r = 0; r < ROTOR_COUNTS.length; r++) {
+            int rotorCount = ROTOR_COUNTS[r];
+            MachineImpl plain = createMachine(rotorCount, false);
+            MachineImpl precomputed = createMachine(rotorCount, true);
+            variants[r] = new Runnable[] {
+                    () -> stepWithAdvance(createRotors(rotorCount, false), characters),
+                    () -> stepWithStepping(createRotors(rotorCount, false), characters),
+                    () -> plain.process(input, 0, output, 0, characters),
+                    () -> precomputed.process(input, 0, output, 0, characters)
+            };
+        }
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            for (Runnable[] row : variants) {
+                for (Runnable variant : row) {
+                    variant.run();
+                }
+            }
+        }
+
+        System.out.printf("%d characters, best of %d runs, ns per character%n", characters, MEASURED_RUNS);
+        System.out.printf("%-7s %14s %14s %14s %14s%n", "rotors", "advance chain", "RotorStepping", "process", "precomputed");
+        for (int r = 0; r < ROTOR_COUNTS.length; r++) {
+            System.out.printf("%-7d", ROTOR_COUNTS[r]);
+            for (Runnable variant : variants[r]) {
+                System.out.printf(" %14.1f", best(characters, variant));
+            }
+            System.out.println();
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    // how the rotors stepped before RotorStepping: advance each rotor while the previous one carries
+    private static void stepWithAdvance(List<Rotor> rotors, int steps) {
+        for (int i = 0; i < steps; i++) {
+            int rotorIndex = 0;
+            while (rotors.get(rotorIndex).advance() && ++rotorIndex < rotors.size()) {
+                // carry into the next rotor
+            }
+        }
+        sink += rotors.get(rotors.size() - 1).getPosition();
+    }
+
+    private static void stepWithStepping(List<Rotor> rotors, int steps) {
+        int[] positions = new int[rotors.size()];
+        int[] notches = new int[rotors.size()];
+        for (int i = 0; i < rotors.size(); i++) {
+            notches[i] = rotors.get(i).getNotch();
+        }
+        for (int i = 0; i < steps; i++) {
+            RotorStepping.step(positions, notches, ABC.length());
+        }
+        sink += positions[rotors.size() - 1];
+    }
+
+    private static double best(int characters, Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double) characters;
+    }
+
+    private static MachineImpl createMachine(int rotorCount, boolean precomputed) {
+        SplittableRandom random = new SplittableRandom(SEED + rotorCount);
+        List<Rotor> rotors = createRotors(rotorCount, precomputed);
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < rotorCount; i++) {
+            positions.add(random.nextInt(ABC.length()));
+        }
+        int[] order = shuffledIndices(random);
+        Map<Integer, Integer> reflector = new HashMap<>();
+        for (int i = 0; i < order.length; i += 2) {
+            reflector.put(order[i], order[i + 1]);
+            reflector.put(order[i + 1], order[i]);
+        }
+
+        MachineImpl machine = new MachineImpl(new KeyboardImpl(ABC));
+        machine.setCode(new CodeImpl(rotors, positions, new ReflectorImpl(1, reflector),
+                new PlugboardImpl(Collections.emptyMap(), ABC.length())));
+        return machine;
+    }
+
+    private static List<Rotor> createRotors(int rotorCount, boolean precomputed) {
+        SplittableRandom random = new SplittableRandom(SEED * rotorCount);
+        List<Rotor> rotors = new ArrayList<>();
+        for (int id = 1; id <= rotorCount; id++) {
+            int[] forward = shuffledIndices(random);
+            int[] backward = new int[forward.length];
+            for (int i = 0; i < forward.length; i++) {
+                backward[forward[i]] = i;
+            }
+            int notch = random.nextInt(ABC.length());
+            rotors.add(precomputed
+                    ? new PrecomputedRotorImpl(id, forward, backward, 0, notch, 0)
+                    : new RotorImpl(id, forward, backward, 0, notch, 0));
+        }
+        return rotors;
+    }
+
+    private static int[] shuffledIndices(SplittableRandom random) {
+        int[] indices = new int[ABC.length()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        for (int i = indices.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+        return indices;
+    }
+
+    private static char[] randomText(int length, SplittableRandom random) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = ABC.charAt(random.nextInt(ABC.length()));
+        }
+        return text;
+    }
+}